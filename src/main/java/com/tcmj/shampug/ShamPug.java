@@ -1,16 +1,33 @@
 package com.tcmj.shampug;
 
+import com.tcmj.shampug.intern.AliasTable;
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.HashIndex;
+import com.tcmj.shampug.intern.PermutationCursor;
+import com.tcmj.shampug.intern.RangeIndex;
+import com.tcmj.shampug.intern.RecordSpliterator;
 import com.tcmj.shampug.intern.Registry;
 import com.tcmj.shampug.intern.Registry.Strategy;
 import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.intern.Weights;
 import com.tcmj.shampug.modules.custom.AbstractRecord;
 import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Range;
 import com.tcmj.shampug.pub.Randoms;
 import com.tcmj.shampug.pub.Record;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
-import java.util.Random;
 import java.util.Set;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Main class and entry point to create your random ShamPug data.
@@ -31,6 +48,9 @@ import java.util.Set;
  */
 public final class ShamPug {
 
+    /** random picks within the narrowest range before a multi-field range draw scans it. */
+    private static final int RANGE_ATTEMPTS = 32;
+
     private final RandomUnit randoms;
     private Registry registry;
 
@@ -63,6 +83,60 @@ public final class ShamPug {
         return this;
     }
 
+    /**
+     * Registers a whole category at once (eg. a {@link com.tcmj.shampug.modules.custom.mem.ColumnarCategory}).
+     */
+    public ShamPug put(Category category) {
+        this.registry.put(category);
+        return this;
+    }
+
+    /**
+     * Registers a category which will be loaded on its first access only (see {@link Registry#putLoader}).
+     * <pre>
+     * shamPug.putLoader("countries", new CustomJsonLoader(shamPug).categoryFromResource("countries", "/countries.json"));
+     * </pre>
+     */
+    public ShamPug putLoader(String category, Supplier<? extends Category> loader) {
+        this.registry.putLoader(category, loader);
+        return this;
+    }
+
+    /**
+     * Draws the records of the category proportional to their weight (see {@link Registry#putWeights}).
+     * <pre>
+     * shamPug.putWeights("countries", country -> country.getLong("population"));
+     * </pre>
+     */
+    public ShamPug putWeights(String category, ToDoubleFunction<? super Record<?>> weight) {
+        this.registry.putWeights(category, weight);
+        return this;
+    }
+
+    /**
+     * Draws the records of the category proportional to the value of a numeric field (see {@link Registry#putWeights}).
+     */
+    public ShamPug putWeights(String category, String field) {
+        this.registry.putWeights(category, field);
+        return this;
+    }
+
+    /**
+     * Indexes a field of the category to draw records having a certain value (see {@link #get(String, String, Comparable)}).
+     */
+    public ShamPug putIndex(String category, String field) {
+        this.registry.putIndex(category, field);
+        return this;
+    }
+
+    /**
+     * Indexes a numeric field of the category to draw records within a range of values (see {@link #get(String, Range, Range...)}).
+     */
+    public ShamPug putRangeIndex(String category, String field) {
+        this.registry.putRangeIndex(category, field);
+        return this;
+    }
+
     /**
      * Access to all standard randomness like numbers.
      */
@@ -107,21 +181,221 @@ public final class ShamPug {
     }
 
     public <T extends Comparable<T>> Record<T> get(String address) {
-        Set<Record<? extends Comparable>> found = registry.lookup(address);
+        Category found = registry.lookup(address);
+        if (found != null) {
+            return (Record<T>) found.get(draw(found));
+        }
+        throw new ShamPugException("No '" + address + "' records available!");
+    }
+
+    /**
+     * Draws a random record having the given field value in constant time. The field has to be indexed using
+     * {@link #putIndex(String, String)} before.
+     * <pre>
+     * shamPug.putIndex("pugs", "color");
+     * Record&lt;CustomMem&gt; pug = shamPug.get("pugs", "color", "B");
+     * </pre>
+     * @param address the category name
+     * @param field an indexed field
+     * @param value the value the record must have
+     * @return one of the matching records - all of them equally likely
+     */
+    public <T extends Comparable<T>> Record<T> get(String address, String field, Comparable<?> value) {
+        Category found = registry.lookup(address);
         if (found != null) {
-            return (Record<T>) found.stream().skip(getRandomUnit().nextInt(found.size())).findFirst().get();
+            final HashIndex index = registry.getIndex(address, field);
+            if (index == null) {
+                throw new ShamPugException("The '" + address + "' records have no index on '" + field + "'! Use #putIndex first.");
+            }
+            final int position = index.draw(found, value, getRandomUnit());
+            if (position >= 0) {
+                return (Record<T>) found.get(position);
+            }
+            throw new ShamPugException("No '" + address + "' records with " + field + "='" + value + "' available!");
         }
         throw new ShamPugException("No '" + address + "' records available!");
     }
 
+    /**
+     * Draws a random record whose numeric fields lie within all the given ranges. The fields have to be indexed using
+     * {@link #putRangeIndex(String, String)} before.
+     * <pre>
+     * shamPug.putRangeIndex("countries", "population");
+     * Record&lt;CustomMem&gt; country = shamPug.get("countries", Range.of("population", 5_000_000, 50_000_000));
+     * </pre>
+     * A single range costs O(log n) to resolve its bounds and O(1) to pick a record. With several ranges the records of the
+     * narrowest one are tried at random for a while and then scanned once (reservoir sampling), so the draw stays uniform.
+     * @param address the category name
+     * @param range range of an indexed field
+     * @param more optional ranges of further indexed fields
+     * @return one of the matching records - all of them equally likely
+     */
+    public <T extends Comparable<T>> Record<T> get(String address, Range range, Range... more) {
+        Category found = registry.lookup(address);
+        if (found == null) {
+            throw new ShamPugException("No '" + address + "' records available!");
+        }
+        final Range[] ranges = new Range[more.length + 1];
+        ranges[0] = range;
+        System.arraycopy(more, 0, ranges, 1, more.length);
+        // resolve the narrowest range which is the one we pick from
+        RangeIndex.Sorted narrowest = null;
+        int low = 0;
+        int high = 0;
+        for (Range current : ranges) {
+            final RangeIndex index = registry.getRangeIndex(address, current.getField());
+            if (index == null) {
+                throw new ShamPugException("The '" + address + "' records have no range index on '" + current.getField() + "'! Use #putRangeIndex first.");
+            }
+            final RangeIndex.Sorted sorted = index.sorted(found);
+            final int lower = sorted.lowerBound(current.getMin());
+            final int upper = Math.max(lower, sorted.upperBound(current.getMax()));
+            if (narrowest == null || upper - lower < high - low) {
+                narrowest = sorted;
+                low = lower;
+                high = upper;
+            }
+        }
+        if (high > low) {
+            if (ranges.length == 1) {
+                return (Record<T>) found.get(narrowest.position(low + getRandomUnit().nextInt(high - low)));
+            }
+            for (int attempt = 0; attempt < RANGE_ATTEMPTS; attempt++) {
+                final Record<?> candidate = found.get(narrowest.position(low + getRandomUnit().nextInt(high - low)));
+                if (containedInAll(candidate, ranges)) {
+                    return (Record<T>) candidate;
+                }
+            }
+            Record<?> chosen = null;
+            int matches = 0;
+            for (int rank = low; rank < high; rank++) {
+                final Record<?> candidate = found.get(narrowest.position(rank));
+                if (containedInAll(candidate, ranges) && getRandomUnit().nextInt(++matches) == 0) {
+                    chosen = candidate;
+                }
+            }
+            if (chosen != null) {
+                return (Record<T>) chosen;
+            }
+        }
+        throw new ShamPugException("No '" + address + "' records with " + Arrays.toString(ranges) + " available!");
+    }
+
+    private static boolean containedInAll(Record<?> record, Range[] ranges) {
+        for (Range range : ranges) {
+            if (!range.contains(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Draws {@code k} distinct records of the category (sampling without replacement, uniformly - weights are ignored).
+     * Uses Floyd's algorithm which needs k draws and remembers only the k chosen positions - the category is neither
+     * copied nor shuffled. Every subset of k records is equally likely.
+     * @param address the category name
+     * @param k amount of records
+     * @return k distinct records - in no particular order
+     */
+    public <T extends Comparable<T>> List<Record<T>> sample(String address, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Sample size may not be negative: " + k);
+        }
+        Category found = registry.lookup(address);
+        if (found == null) {
+            throw new ShamPugException("No '" + address + "' records available!");
+        }
+        final int size = found.size();
+        if (k > size) {
+            throw new ShamPugException("Cannot sample " + k + " distinct '" + address + "' records out of " + size + "!");
+        }
+        final List<Record<T>> sample = new ArrayList<>(k);
+        final Set<Integer> chosen = new HashSet<>(k * 2);
+        for (int j = size - k; j < size; j++) {
+            final int position = getRandomUnit().nextInt(j + 1);
+            // if the position was chosen before, j is new as it has never been within the bound
+            final int taken = chosen.add(position) ? position : j;
+            chosen.add(taken);
+            sample.add((Record<T>) found.get(taken));
+        }
+        return sample;
+    }
+
+    /**
+     * Visits every record of the category exactly once in random order using a {@link PermutationCursor}
+     * (constant memory, no shuffled copy). Records added later on won't be visited.
+     * @param address the category name
+     * @return iterator over all records of the category
+     */
+    public <T extends Comparable<T>> Iterator<Record<T>> shuffled(String address) {
+        Category found = registry.lookup(address);
+        if (found == null) {
+            throw new ShamPugException("No '" + address + "' records available!");
+        }
+        final PermutationCursor cursor = new PermutationCursor(found.size(), getRandomUnit());
+        return new Iterator<Record<T>>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Record<T> next() {
+                return (Record<T>) found.get(cursor.next());
+            }
+        };
+    }
+
     public <T extends AbstractRecord<T>> T get(Class<T> clazz) {
-        Set<Record<? extends Comparable>> found = registry.lookup(clazz);
+        Category found = registry.lookup(clazz);
         if (found != null) {
-            return (T) found.stream().skip(getRandomUnit().nextInt(found.size())).findFirst().get();
+            return (T) found.get(draw(found));
         }
         throw new ShamPugException("No '" + clazz + "' records available!");
     }
 
+    /**
+     * Stream of {@code count} random records of the given category which may safely be used with {@code .parallel()}.
+     * Using a seed you get the same records in the same order - no matter if you use one or 64 cores.
+     * Each call derives its own random root (see {@link RandomUnit#split()}), so the same sequence of calls reproduces the same streams.
+     * @param address the category name
+     * @param count amount of records to be drawn
+     * @return a sequential stream which can be turned into a parallel one
+     */
+    public <T extends Comparable<T>> Stream<Record<T>> stream(String address, long count) {
+        Category found = registry.lookup(address);
+        if (found != null) {
+            return StreamSupport.stream(new RecordSpliterator<T>(found, aliasTable(found), getRandomUnit().split(), count), false);
+        }
+        throw new ShamPugException("No '" + address + "' records available!");
+    }
+
+    /**
+     * Same as {@link #stream(String, long)} using the class name as category.
+     */
+    public <T extends AbstractRecord<T>> Stream<T> stream(Class<T> clazz, long count) {
+        Category found = registry.lookup(clazz);
+        if (found != null) {
+            Stream<Record<T>> records = StreamSupport.stream(new RecordSpliterator<T>(found, aliasTable(found), getRandomUnit().split(), count), false);
+            return records.map(clazz::cast);
+        }
+        throw new ShamPugException("No '" + clazz + "' records available!");
+    }
+
+    /**
+     * @return the position of a random record - uniformly or weighted if the category has weights
+     */
+    private int draw(Category found) {
+        final AliasTable weights = aliasTable(found);
+        return weights == null ? getRandomUnit().nextInt(found.size()) : weights.next(getRandomUnit());
+    }
+
+    private AliasTable aliasTable(Category found) {
+        final Weights weights = this.registry.getWeights(found.getName());
+        return weights == null ? null : weights.table(found);
+    }
+
     public static class Builder {
         private Registry.Strategy registryStrategy;
         private Random customRandom;
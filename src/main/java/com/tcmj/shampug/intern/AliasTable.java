@@ -0,0 +1,86 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.RandomUnit;
+
+/**
+ * Immutable alias table (Vose's alias method) for weighted random draws in constant time.
+ * <p>
+ * Every position owns one column of the same height: a draw picks a column uniformly and then either keeps it
+ * (with its {@code probability}) or takes the {@code alias} sharing the rest of the column.
+ * Building the table costs O(n), each draw takes one int and one double from the RandomUnit.
+ * </p>
+ */
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    private AliasTable(double[] probability, int[] alias) {
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * Builds the table for the first {@code size} weights.
+     * @param weights the (non negative and finite) weight of each position
+     * @param size amount of positions to be used
+     * @return the alias table
+     */
+    public static AliasTable of(double[] weights, int size) {
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += weights[i];
+        }
+        if (!(total > 0.0) || Double.isInfinite(total)) {
+            throw new ShamPugException("Cannot draw weighted with a total weight of " + total + "!");
+        }
+        final double[] probability = new double[size];
+        final int[] alias = new int[size];
+        // small columns are stacked from the front, large ones from the back of the same work array
+        final int[] work = new int[size];
+        int small = 0;
+        int large = size;
+        for (int i = 0; i < size; i++) {
+            probability[i] = weights[i] * size / total;
+            if (probability[i] < 1.0) {
+                work[small++] = i;
+            } else {
+                work[--large] = i;
+            }
+        }
+        while (small > 0 && large < size) {
+            final int less = work[--small];
+            final int more = work[large++];
+            alias[less] = more;
+            probability[more] = probability[more] + probability[less] - 1.0;
+            if (probability[more] < 1.0) {
+                work[small++] = more;
+            } else {
+                work[--large] = more;
+            }
+        }
+        // the remaining columns are full (apart from rounding errors)
+        while (large < size) {
+            probability[work[large++]] = 1.0;
+        }
+        while (small > 0) {
+            probability[work[--small]] = 1.0;
+        }
+        return new AliasTable(probability, alias);
+    }
+
+    /**
+     * @return a random position - each one drawn proportional to its weight
+     */
+    public int next(RandomUnit random) {
+        final int column = random.nextInt(this.probability.length);
+        return random.nextDouble() < this.probability[column] ? column : this.alias[column];
+    }
+
+    /**
+     * @return amount of positions
+     */
+    public int size() {
+        return this.probability.length;
+    }
+}
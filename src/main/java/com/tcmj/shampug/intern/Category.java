@@ -0,0 +1,178 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.Record;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All records registered under one category name (eg. 'pugs' or 'countries').
+ * <p>
+ * A category behaves like the former {@link java.util.LinkedHashSet}: it keeps the insertion order and
+ * silently ignores records which are already contained. Additionally it offers random access by position
+ * which lets {@link com.tcmj.shampug.ShamPug#get(String)} draw a record in constant time.
+ * </p>
+ * <p>
+ * Categories are safe for concurrent use. Reading never takes a lock: every reader works on an immutable
+ * {@link Snapshot} of the record array. Writers are serialized per category (so different categories
+ * don't block each other) and publish a new snapshot after each append.
+ * </p>
+ * <p>
+ * A category may be stacked on top of a frozen parent category (see {@link Registry#loadBase}). The parent
+ * records come first and are never copied; our own records follow behind them. Confined categories are only
+ * ever touched by one thread and skip all locking.
+ * </p>
+ */
+public class Category extends AbstractSet<Record<? extends Comparable>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String name;
+    private final Category parent;
+    private final int parentSize;
+    private final boolean confined;
+    private final Set<Record<? extends Comparable>> distinct;
+    private volatile Snapshot snapshot = new Snapshot(new Record[INITIAL_CAPACITY], 0);
+
+    public Category(String name) {
+        this(name, null, false);
+    }
+
+    /**
+     * @param name category name
+     * @param parent optional category whose records are visible in front of ours. It must not change anymore!
+     * @param confined true if this category will only be used by a single thread (no locking at all)
+     */
+    public Category(String name, Category parent, boolean confined) {
+        this.name = name;
+        this.parent = parent;
+        this.parentSize = parent == null ? 0 : parent.size();
+        this.confined = confined;
+        this.distinct = confined ? new HashSet<>() : ConcurrentHashMap.newKeySet();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Random access to the record at the given position (insertion order).
+     * @param index position within this category starting at zero
+     * @return the record at this position
+     */
+    public Record<? extends Comparable> get(int index) {
+        if (index < this.parentSize) {
+            return this.parent.get(index);
+        }
+        return this.snapshot.get(index - this.parentSize);
+    }
+
+    @Override
+    public boolean add(Record<? extends Comparable> record) {
+        if (this.parent != null && this.parent.contains(record)) {
+            return false;
+        }
+        if (this.confined) {
+            return append(record);
+        }
+        synchronized (this) {
+            return append(record);
+        }
+    }
+
+    private boolean append(Record<? extends Comparable> record) {
+        if (!this.distinct.add(record)) {
+            return false;
+        }
+        final Snapshot current = this.snapshot;
+        Record<? extends Comparable>[] elements = current.elements;
+        if (current.size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length << 1);
+        }
+        // slots beyond current.size are invisible to existing readers, so the array can be shared
+        elements[current.size] = record;
+        this.snapshot = new Snapshot(elements, current.size + 1);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return this.distinct.contains(o) || (this.parent != null && this.parent.contains(o));
+    }
+
+    @Override
+    public Iterator<Record<? extends Comparable>> iterator() {
+        if (this.parent == null) {
+            return this.snapshot.iterator();
+        }
+        final Iterator<Record<? extends Comparable>> inherited = this.parent.iterator();
+        final Iterator<Record<? extends Comparable>> own = this.snapshot.iterator();
+        return new Iterator<Record<? extends Comparable>>() {
+            private int remaining = Category.this.parentSize;
+
+            @Override
+            public boolean hasNext() {
+                return this.remaining > 0 || own.hasNext();
+            }
+
+            @Override
+            public Record<? extends Comparable> next() {
+                if (this.remaining > 0) {
+                    this.remaining--;
+                    return inherited.next();
+                }
+                return own.next();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.parentSize + this.snapshot.size;
+    }
+
+    /**
+     * Immutable view of the first {@code size} records. The element array may be shared with newer snapshots
+     * which only ever write behind our size.
+     */
+    private static final class Snapshot {
+        private final Record<? extends Comparable>[] elements;
+        private final int size;
+
+        private Snapshot(Record<? extends Comparable>[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        private Record<? extends Comparable> get(int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+            return this.elements[index];
+        }
+
+        private Iterator<Record<? extends Comparable>> iterator() {
+            return new Iterator<Record<? extends Comparable>>() {
+                private int cursor;
+
+                @Override
+                public boolean hasNext() {
+                    return this.cursor < Snapshot.this.size;
+                }
+
+                @Override
+                public Record<? extends Comparable> next() {
+                    if (this.cursor >= Snapshot.this.size) {
+                        throw new NoSuchElementException();
+                    }
+                    return Snapshot.this.elements[this.cursor++];
+                }
+            };
+        }
+    }
+}
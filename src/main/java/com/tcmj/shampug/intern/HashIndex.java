@@ -0,0 +1,119 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.RandomUnit;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Secondary index of one field of a category (see {@link Registry#putIndex}): the positions of all records
+ * grouped by their field value, so a random record having a certain value is drawn in constant time.
+ * <p>
+ * The index catches up lazily with the records added since its last use - as categories only ever grow
+ * only the new records are indexed. Records without a value aren't indexed at all. Integral numbers are
+ * compared by their value, so an int field may be queried using a long or a big integer and vice versa.
+ * Characters are compared as strings of length one, as text formats read them back that way.
+ * </p>
+ * <p>
+ * Reading never takes a lock: buckets are immutable views like the snapshots of a {@link Category}.
+ * Only catching up is synchronized.
+ * </p>
+ */
+public final class HashIndex {
+
+    private final String field;
+    private final ConcurrentMap<Object, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile Category indexed;
+    private volatile int size;
+
+    public HashIndex(String field) {
+        this.field = Objects.requireNonNull(field, "Please pass a non null index field!");
+    }
+
+    public String getField() {
+        return this.field;
+    }
+
+    /**
+     * @param category the category the index belongs to
+     * @param value the field value
+     * @param random used to pick one of the matching records
+     * @return the position of a random record having the value or -1 if there is none
+     */
+    public int draw(Category category, Object value, RandomUnit random) {
+        final Bucket bucket = bucket(category, value);
+        return bucket == null ? -1 : bucket.positions[random.nextInt(bucket.size)];
+    }
+
+    /**
+     * @return amount of records having the value
+     */
+    public int count(Category category, Object value) {
+        final Bucket bucket = bucket(category, value);
+        return bucket == null ? 0 : bucket.size;
+    }
+
+    private Bucket bucket(Category category, Object value) {
+        if (this.indexed != category || this.size != category.size()) {
+            update(category);
+        }
+        return value == null ? null : this.buckets.get(key(value));
+    }
+
+    private synchronized void update(Category category) {
+        if (this.indexed != category) {
+            this.buckets.clear();
+            this.size = 0;
+            this.indexed = category;
+        }
+        final int target = category.size();
+        for (int i = this.size; i < target; i++) {
+            final Comparable<?> value = category.get(i).get(this.field);
+            if (value != null) {
+                final int position = i;
+                this.buckets.compute(key(value), (key, bucket) -> bucket == null ? new Bucket(position) : bucket.add(position));
+            }
+        }
+        this.size = target;
+    }
+
+    private static Object key(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger && ((BigInteger) value).bitLength() < Long.SIZE) {
+            return ((BigInteger) value).longValue();
+        }
+        if (value instanceof Character) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    /**
+     * Immutable view of the first {@code size} positions. The array may be shared with newer buckets
+     * which only ever write behind our size.
+     */
+    private static final class Bucket {
+        private final int[] positions;
+        private final int size;
+
+        private Bucket(int position) {
+            this(new int[]{position}, 1);
+        }
+
+        private Bucket(int[] positions, int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+
+        private Bucket add(int position) {
+            final int[] grown = this.size == this.positions.length ? Arrays.copyOf(this.positions, this.size << 1) : this.positions;
+            grown[this.size] = position;
+            return new Bucket(grown, this.size + 1);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.RandomUnit;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Visits every position from zero to {@code size - 1} exactly once in random order - without a shuffled copy.
+ * <p>
+ * The cursor counts from zero up to the next even power of two {@code m >= size} (at least 2^8) and maps each
+ * counter value through a keyed bijection on {@code [0, m)}: a balanced Feistel network with {@value #ROUNDS} rounds
+ * whose round function mixes one half with a random round key. Values beyond the size are skipped (cycle walking),
+ * which takes less than four steps per position on average for all but tiny sizes. The cursor needs constant memory no matter how large
+ * the size is and every key yields another pseudo-random permutation.
+ * </p>
+ */
+public final class PermutationCursor {
+
+    /** amount of Feistel rounds - enough to make even tiny permutations hard to tell from uniform ones. */
+    static final int ROUNDS = 8;
+
+    /** smallest half width - tiny domains leave the round functions too few choices. */
+    private static final int MIN_HALF_BITS = 4;
+
+    private final int size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] keys = new long[ROUNDS];
+    private final long domain;
+    private long counter;
+    private int remaining;
+
+    /**
+     * @param size amount of positions
+     * @param random chooses the permutation
+     */
+    public PermutationCursor(int size, RandomUnit random) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size may not be negative: " + size);
+        }
+        final int bits = size <= 2 ? 1 : 64 - Long.numberOfLeadingZeros(size - 1L);
+        this.size = size;
+        this.halfBits = Math.max(MIN_HALF_BITS, (bits + 1) / 2);
+        this.halfMask = (1L << this.halfBits) - 1;
+        this.domain = 1L << (this.halfBits * 2);
+        for (int i = 0; i < ROUNDS; i++) {
+            this.keys[i] = random.nextLong();
+        }
+        this.remaining = size;
+    }
+
+    public boolean hasNext() {
+        return this.remaining > 0;
+    }
+
+    /**
+     * @return the next position which hasn't been visited yet
+     */
+    public int next() {
+        if (this.remaining == 0) {
+            throw new NoSuchElementException("All " + this.size + " positions have been visited!");
+        }
+        while (this.counter < this.domain) {
+            final long position = permute(this.counter++);
+            if (position < this.size) {
+                this.remaining--;
+                return (int) position;
+            }
+        }
+        throw new IllegalStateException("Permutation exhausted before visiting all " + this.size + " positions!");
+    }
+
+    /**
+     * @return amount of positions not visited yet
+     */
+    public int remaining() {
+        return this.remaining;
+    }
+
+    private long permute(long value) {
+        long left = value >>> this.halfBits;
+        long right = value & this.halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long mixed = left ^ (mix(right ^ this.keys[round]) & this.halfMask);
+            left = right;
+            right = mixed;
+        }
+        return left << this.halfBits | right;
+    }
+
+    /**
+     * Finalizer of SplitMix64 - every input bit affects every output bit.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
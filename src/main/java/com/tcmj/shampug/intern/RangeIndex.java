@@ -0,0 +1,184 @@
+package com.tcmj.shampug.intern;
+
+import java.util.Objects;
+
+/**
+ * Sorted numeric index of one field of a category (see {@link Registry#putRangeIndex}): the positions of all records
+ * ordered by their field value, so the records within a range are resolved by two binary searches and a random
+ * one of them is picked in constant time.
+ * <p>
+ * Values are compared as doubles (longs beyond 2^53 lose precision), records without a numeric value aren't indexed.
+ * The index is built lazily on its first use. Records added later on are sorted on their own and merged in on the
+ * next use. Reading never takes a lock: every reader works on an immutable {@link Sorted} view.
+ * </p>
+ */
+public final class RangeIndex {
+
+    private final String field;
+    private volatile Sorted sorted;
+
+    public RangeIndex(String field) {
+        this.field = Objects.requireNonNull(field, "Please pass a non null index field!");
+    }
+
+    public String getField() {
+        return this.field;
+    }
+
+    /**
+     * @param category the category the index belongs to
+     * @return the sorted view covering all current records of the category
+     */
+    public Sorted sorted(Category category) {
+        final Sorted current = this.sorted;
+        if (current != null && current.category == category && current.indexed == category.size()) {
+            return current;
+        }
+        return update(category);
+    }
+
+    private synchronized Sorted update(Category category) {
+        final Sorted current = this.sorted != null && this.sorted.category == category ? this.sorted : null;
+        final int target = category.size();
+        if (current != null && current.indexed == target) {
+            return current;
+        }
+        final int from = current == null ? 0 : current.indexed;
+        double[] values = new double[target - from];
+        int[] positions = new int[target - from];
+        int added = 0;
+        for (int i = from; i < target; i++) {
+            final Comparable<?> value = category.get(i).get(this.field);
+            if (value instanceof Number && !Double.isNaN(((Number) value).doubleValue())) {
+                values[added] = ((Number) value).doubleValue();
+                positions[added++] = i;
+            }
+        }
+        sort(values, positions, 0, added, new double[added], new int[added]);
+        if (current != null) {
+            // merge the new records into the already sorted ones
+            final double[] mergedValues = new double[current.size + added];
+            final int[] mergedPositions = new int[current.size + added];
+            merge(current.values, current.positions, current.size, values, positions, added, mergedValues, mergedPositions);
+            values = mergedValues;
+            positions = mergedPositions;
+            added += current.size;
+        }
+        final Sorted updated = new Sorted(category, target, values, positions, added);
+        this.sorted = updated;
+        return updated;
+    }
+
+    /**
+     * Stable merge sort of the parallel arrays within [from, to).
+     */
+    private static void sort(double[] values, int[] positions, int from, int to, double[] valueBuffer, int[] positionBuffer) {
+        if (to - from < 2) {
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        sort(values, positions, from, mid, valueBuffer, positionBuffer);
+        sort(values, positions, mid, to, valueBuffer, positionBuffer);
+        if (values[mid - 1] <= values[mid]) {
+            return;  // already in order
+        }
+        System.arraycopy(values, from, valueBuffer, from, to - from);
+        System.arraycopy(positions, from, positionBuffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && valueBuffer[left] <= valueBuffer[right])) {
+                values[i] = valueBuffer[left];
+                positions[i] = positionBuffer[left++];
+            } else {
+                values[i] = valueBuffer[right];
+                positions[i] = positionBuffer[right++];
+            }
+        }
+    }
+
+    private static void merge(double[] leftValues, int[] leftPositions, int leftSize, double[] rightValues, int[] rightPositions,
+                              int rightSize, double[] values, int[] positions) {
+        int left = 0;
+        int right = 0;
+        for (int i = 0; i < leftSize + rightSize; i++) {
+            if (right >= rightSize || (left < leftSize && leftValues[left] <= rightValues[right])) {
+                values[i] = leftValues[left];
+                positions[i] = leftPositions[left++];
+            } else {
+                values[i] = rightValues[right];
+                positions[i] = rightPositions[right++];
+            }
+        }
+    }
+
+    /**
+     * Immutable view of the record positions ordered by their field value.
+     */
+    public static final class Sorted {
+        private final Category category;
+        private final int indexed;
+        private final double[] values;
+        private final int[] positions;
+        private final int size;
+
+        private Sorted(Category category, int indexed, double[] values, int[] positions, int size) {
+            this.category = category;
+            this.indexed = indexed;
+            this.values = values;
+            this.positions = positions;
+            this.size = size;
+        }
+
+        /**
+         * @return the rank of the first value greater than or equal to min
+         */
+        public int lowerBound(double min) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.values[mid] < min) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the rank of the first value greater than max
+         */
+        public int upperBound(double max) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (this.values[mid] <= max) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the category position of the record with the given rank
+         */
+        public int position(int rank) {
+            if (rank < 0 || rank >= this.size) {
+                throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + this.size);
+            }
+            return this.positions[rank];
+        }
+
+        /**
+         * @return amount of indexed records
+         */
+        public int size() {
+            return this.size;
+        }
+    }
+}
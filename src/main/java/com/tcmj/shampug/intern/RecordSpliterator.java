@@ -0,0 +1,118 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator drawing {@code count} random records of one category which gives the same records in the same order
+ * for sequential and parallel streams.
+ * <p>
+ * The draws are divided into fixed blocks of {@link #BLOCK_SIZE}. Each block uses its own RandomUnit derived by
+ * {@link RandomUnit#split(long)} from the block number, and splitting only ever happens at block boundaries.
+ * So the result depends on the seed only - not on the amount of cores or on how the fork/join pool schedules the work.
+ * </p>
+ * @param <T> record type
+ */
+public class RecordSpliterator<T extends Comparable<T>> implements Spliterator<Record<T>> {
+
+    /** Amount of draws sharing one derived RandomUnit. */
+    public static final int BLOCK_SIZE = 1024;
+
+    private final Category category;
+    private final AliasTable weights;
+    private final int size;
+    private final RandomUnit root;
+    private final long fence;
+    private long index;
+    private RandomUnit current;
+
+    /**
+     * @param category the category to draw from. Records added later on won't be drawn by this spliterator.
+     * @param root the RandomUnit used to derive all the block units
+     * @param count amount of records to be drawn
+     */
+    public RecordSpliterator(Category category, RandomUnit root, long count) {
+        this(category, null, root, count);
+    }
+
+    /**
+     * @param category the category to draw from. Records added later on won't be drawn by this spliterator.
+     * @param weights optional alias table of the category for weighted draws (null for uniform ones)
+     * @param root the RandomUnit used to derive all the block units
+     * @param count amount of records to be drawn
+     */
+    public RecordSpliterator(Category category, AliasTable weights, RandomUnit root, long count) {
+        this(category, weights, weights == null ? category.size() : weights.size(),
+            Objects.requireNonNull(root, "RandomUnit may not be null!"), 0L, count, null);
+        if (count < 0) {
+            throw new IllegalArgumentException("Count may not be negative: " + count);
+        }
+        if (this.size == 0) {
+            throw new ShamPugException("No '" + category.getName() + "' records available!");
+        }
+    }
+
+    private RecordSpliterator(Category category, AliasTable weights, int size, RandomUnit root, long index, long fence, RandomUnit current) {
+        this.category = category;
+        this.weights = weights;
+        this.size = size;
+        this.root = root;
+        this.index = index;
+        this.fence = fence;
+        this.current = current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Record<T> draw() {
+        if (this.current == null || this.index % BLOCK_SIZE == 0) {
+            this.current = this.root.split(this.index / BLOCK_SIZE);
+        }
+        this.index++;
+        final int position = this.weights == null ? this.current.nextInt(this.size) : this.weights.next(this.current);
+        return (Record<T>) this.category.get(position);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Record<T>> action) {
+        if (this.index >= this.fence) {
+            return false;
+        }
+        action.accept(draw());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Record<T>> action) {
+        while (this.index < this.fence) {
+            action.accept(draw());
+        }
+    }
+
+    @Override
+    public Spliterator<Record<T>> trySplit() {
+        final long lo = this.index;
+        final long mid = ((lo + this.fence) >>> 1) / BLOCK_SIZE * BLOCK_SIZE;
+        if (mid <= lo) {
+            return null;
+        }
+        // the prefix continues our current block, we restart at a block boundary
+        final RecordSpliterator<T> prefix = new RecordSpliterator<>(this.category, this.weights, this.size, this.root, lo, mid, this.current);
+        this.index = mid;
+        this.current = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.fence - this.index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
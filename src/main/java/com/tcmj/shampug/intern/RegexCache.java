@@ -0,0 +1,150 @@
+package com.tcmj.shampug.intern;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of compiled {@link RgxGen} generators keyed by pattern and options.
+ * <p>
+ * Parsing a regex into a RgxGen node tree is by far the most expensive part of {@link com.tcmj.shampug.pub.RandomUnit#regex(String)}.
+ * A compiled generator holds no random state (the {@link java.util.Random} is passed on each generation) and its properties are only
+ * set once while compiling, so one instance can be shared by all threads and all RandomUnits.
+ * When the cache is full the least recently used generator gets evicted.
+ * </p>
+ */
+public class RegexCache {
+
+    /** Default amount of compiled patterns kept in memory. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int capacity;
+    private final Map<Key, RgxGen> generators;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RegexCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Regex cache capacity must be positive but was " + capacity + "!");
+        }
+        this.capacity = capacity;
+        this.generators = new LinkedHashMap<Key, RgxGen>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, RgxGen> eldest) {
+                return size() > RegexCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled generator for the given pattern and options. Compiles (and caches) it on a miss.
+     * @param pattern regex pattern to be used
+     * @param infinity amount of chars used for infinite expression ('+')
+     * @param caseSensitivity true creates case sensitive results (e.g. 'aAaA')
+     * @return a ready to use generator which may be shared between threads
+     */
+    public RgxGen get(String pattern, int infinity, boolean caseSensitivity) {
+        Objects.requireNonNull(pattern, "Regex pattern may not be null!");
+        final Key key = new Key(pattern, infinity, caseSensitivity);
+        RgxGen rgxGen;
+        synchronized (this.generators) {
+            rgxGen = this.generators.get(key);
+        }
+        if (rgxGen != null) {
+            this.hits.increment();
+            return rgxGen;
+        }
+        this.misses.increment();
+        // compile outside the lock - at worst two threads compile the same pattern concurrently
+        final RgxGen compiled = compile(pattern, infinity, caseSensitivity);
+        synchronized (this.generators) {
+            rgxGen = this.generators.putIfAbsent(key, compiled);
+        }
+        return rgxGen == null ? compiled : rgxGen;
+    }
+
+    private static RgxGen compile(String pattern, int infinity, boolean caseSensitivity) {
+        final RgxGen rgxGen = new RgxGen(pattern);
+        final RgxGenProperties rgxGenProperties = new RgxGenProperties();
+        rgxGenProperties.setProperty(RgxGenOption.INFINITE_PATTERN_REPETITION.getKey(), String.valueOf(infinity));
+        rgxGenProperties.setProperty(RgxGenOption.CASE_INSENSITIVE.getKey(), String.valueOf(caseSensitivity));
+        rgxGen.setProperties(rgxGenProperties);
+        return rgxGen;
+    }
+
+    /**
+     * @return amount of lookups which could reuse an already compiled generator
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return amount of lookups which had to compile a new generator
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return amount of compiled generators currently cached
+     */
+    public int size() {
+        synchronized (this.generators) {
+            return this.generators.size();
+        }
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Removes all compiled generators and resets the hit/miss counters.
+     */
+    public void clear() {
+        synchronized (this.generators) {
+            this.generators.clear();
+        }
+        this.hits.reset();
+        this.misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "RegexCache[size=" + size() + ", capacity=" + this.capacity + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+
+    private static final class Key {
+        private final String pattern;
+        private final int infinity;
+        private final boolean caseSensitivity;
+
+        private Key(String pattern, int infinity, boolean caseSensitivity) {
+            this.pattern = pattern;
+            this.infinity = infinity;
+            this.caseSensitivity = caseSensitivity;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.infinity == other.infinity && this.caseSensitivity == other.caseSensitivity && this.pattern.equals(other.pattern);
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.pattern.hashCode() * 31 + this.infinity) * 31 + (this.caseSensitivity ? 1 : 0);
+        }
+    }
+}
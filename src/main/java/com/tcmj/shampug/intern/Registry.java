@@ -3,28 +3,102 @@ package com.tcmj.shampug.intern;
 
 import com.tcmj.shampug.pub.Record;
 
-import java.util.HashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
 import static com.tcmj.shampug.intern.Registry.Strategy.GLOBAL;
+import static com.tcmj.shampug.intern.Registry.Strategy.PER_TREAD;
 
 /**
  * Modules must be registered here.
  * We have some of our own implementations like Address and also custom ones.
+ * <p>A registry may be shared between threads (see {@link Strategy#GLOBAL}): lookups never lock and
+ * writes only synchronize on the single {@link Category} they append to.</p>
+ * <p>With {@link Strategy#PER_TREAD} every thread gets its own private registry. All of them are stacked on top
+ * of one shared, read-only base registry which may be filled once using {@link #loadBase(Consumer)} before any
+ * thread puts its own records. Without shared records there is nothing to set up: the first per-thread put freezes
+ * the base as it is (empty). Threads of a pool should call {@link #clearThread()} once their work is done, otherwise
+ * their records live as long as the thread:</p>
+ * <pre>
+ *     Registry.loadBase(base -> base.put("countries", austria));
+ *     // ...later on any worker thread:
+ *     ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.PER_TREAD).create();
+ *     shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Cuba")); // only visible on this thread
+ * </pre>
+ * <p>Categories may also be registered lazily using {@link #putLoader(String, Supplier)}: the loader runs on the first
+ * access of its category only (exactly once, even if several threads ask for it at the same time).</p>
+ * <p>A category drawn with {@link #putWeights} gets weighted draws instead of uniform ones (eg. countries by population).</p>
+ * <p>Fields indexed with {@link #putIndex} allow drawing records having a certain value in constant time,
+ * numeric fields indexed with {@link #putRangeIndex} allow drawing records within a range of values.</p>
  */
 public class Registry {
 
     private static final Registry STATIC_INSTANCE = new Registry(GLOBAL);
-    private static ThreadLocal<Registry> THREADLOCAL_INSTANCE;
+    private static final Registry BASE_INSTANCE = new Registry(GLOBAL);
+    private static final ThreadLocal<Registry> THREADLOCAL_INSTANCE = ThreadLocal.withInitial(() -> new Registry(PER_TREAD, BASE_INSTANCE));
 
-    private final Map<String, Set<Record<? extends Comparable>>> modules = new HashMap<>();
+    private final ConcurrentMap<String, Category> modules = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PendingLoader> loaders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Weights> weights = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, HashIndex>> indexes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, RangeIndex>> rangeIndexes = new ConcurrentHashMap<>();
 
     private Strategy strategy;
+    private final Registry base;
+    private volatile boolean frozen;
 
     public Registry(Strategy strategy) {
+        this(strategy, null);
+    }
+
+    /**
+     * @param base the base registry underneath a {@link Strategy#PER_TREAD} registry
+     */
+    Registry(Strategy strategy, Registry base) {
         this.strategy = strategy;
+        this.base = base;
+    }
+
+    /**
+     * Fills the shared base registry used underneath all {@link Strategy#PER_TREAD} registries.
+     * Afterwards the base registry is read-only and the per-thread registries accept their own records.
+     * Call it exactly once before your worker threads start to put their own records.
+     * @param loader puts all the shared records into the given (base) registry
+     * @return the frozen base registry
+     * @throws ShamPugException if the base registry has already been loaded or frozen by a per-thread put
+     */
+    public static Registry loadBase(Consumer<Registry> loader) {
+        return BASE_INSTANCE.loadAsBase(loader);
+    }
+
+    /**
+     * Fills this registry using the loader and freezes it afterwards.
+     */
+    Registry loadAsBase(Consumer<Registry> loader) {
+        Objects.requireNonNull(loader, "Please pass a non null base loader!");
+        synchronized (this) {
+            if (this.frozen) {
+                throw new ShamPugException("The base registry has already been loaded or frozen by a per-thread put!");
+            }
+            loader.accept(this);
+            this.frozen = true;
+        }
+        return this;
+    }
+
+    /**
+     * Drops the {@link Strategy#PER_TREAD} registry of the calling thread together with all its records.
+     * The next per-thread access starts with an empty registry on top of the base again.
+     * Pooled threads should call it when their task is done.
+     */
+    public static void clearThread() {
+        THREADLOCAL_INSTANCE.remove();
     }
 
     public static Registry get(Strategy strategy) {
@@ -32,8 +106,6 @@ public class Registry {
             case GLOBAL:
                 return STATIC_INSTANCE;
             case PER_TREAD:
-                THREADLOCAL_INSTANCE = new ThreadLocal();
-                THREADLOCAL_INSTANCE.set(new Registry(strategy));
                 return THREADLOCAL_INSTANCE.get();
             case NEW_INSTANCE:
                 return new Registry(strategy);
@@ -43,24 +115,265 @@ public class Registry {
     }
 
     public void put(String address, Record record) {
-        Set<Record<? extends Comparable>> records = modules.get(address);
+        if (this.frozen) {
+            throw new ShamPugException("The base registry is read-only! Cannot put '" + address + "' records anymore.");
+        }
+        freezeBase();
+        Category records = modules.get(address);
         if (records == null) {
-            records = new LinkedHashSet<>();
-            modules.put(address, records);
+            records = loadPending(address);
+        }
+        while (records == null) {
+            // created within the map so a concurrent putLoader either wins (and its loader runs) or fails
+            records = modules.computeIfAbsent(address, a -> this.loaders.containsKey(a) ? null : newCategory(a));
+            if (records == null) {
+                records = loadPending(address);
+            }
         }
         records.add(record);
+    }
 
+    /**
+     * Registers a complete category (eg. a {@link com.tcmj.shampug.modules.custom.mem.ColumnarCategory}) at once.
+     * @param category the category to be registered using its name
+     */
+    public void put(Category category) {
+        if (this.frozen) {
+            throw new ShamPugException("The base registry is read-only! Cannot put the '" + category.getName() + "' category anymore.");
+        }
+        freezeBase();
+        final boolean[] registered = new boolean[1];
+        modules.computeIfAbsent(category.getName(), a -> {
+            registered[0] = !this.loaders.containsKey(a);
+            return registered[0] ? category : null;
+        });
+        if (!registered[0]) {
+            throw new ShamPugException("There are already '" + category.getName() + "' records registered!");
+        }
     }
 
-    public Set<Record<? extends Comparable>> lookup(String address) {
-        Set<Record<? extends Comparable>> records = modules.get(address);
-        return records;
+    /**
+     * Registers a category which will be loaded on its first access (lookup or put) only.
+     * Concurrent first accesses are safe: the loader runs exactly once, all other threads wait for its result.
+     * If the loader fails it will be retried on the next access.
+     * The loader runs without holding any lock of the registry map, so it may look up other categories.
+     * @param address name of the category
+     * @param loader creates the category - it must not access its own category
+     */
+    public void putLoader(String address, Supplier<? extends Category> loader) {
+        Objects.requireNonNull(loader, "Please pass a non null category loader!");
+        if (this.frozen) {
+            throw new ShamPugException("The base registry is read-only! Cannot put a loader for '" + address + "' anymore.");
+        }
+        freezeBase();
+        final boolean[] registered = new boolean[1];
+        // registered within the map (without creating an entry) so it cannot interleave with a put creating the category
+        modules.computeIfAbsent(address, a -> {
+            registered[0] = this.loaders.putIfAbsent(a, new PendingLoader(a, loader)) == null;
+            return null;
+        });
+        if (!registered[0]) {
+            throw new ShamPugException("There are already '" + address + "' records registered!");
+        }
+    }
+
+    /**
+     * Declares the weight of each record of a category: {@link com.tcmj.shampug.ShamPug#get(String)} then draws
+     * records proportional to their weight (in constant time using an {@link AliasTable}).
+     * The weights are evaluated lazily on the next draw - also for records which get added later on.
+     * @param address name of the category (it doesn't need to exist yet)
+     * @param weight computes the non negative weight of a record
+     */
+    public void putWeights(String address, ToDoubleFunction<? super Record<?>> weight) {
+        if (this.frozen) {
+            throw new ShamPugException("The base registry is read-only! Cannot put weights for '" + address + "' anymore.");
+        }
+        this.weights.put(address, new Weights(weight));
+    }
+
+    /**
+     * Same as {@link #putWeights(String, ToDoubleFunction)} taking the weights from a numeric field of the records.
+     */
+    public void putWeights(String address, String field) {
+        Objects.requireNonNull(field, "Please pass a non null weight field!");
+        putWeights(address, record -> {
+            final Comparable<?> value = record.get(field);
+            if (!(value instanceof Number)) {
+                throw new ShamPugException("The '" + address + "' record " + record + " has no numeric '" + field + "' weight!");
+            }
+            return ((Number) value).doubleValue();
+        });
     }
 
-    public <T extends Comparable<T>> Set<Record<? extends Comparable>> lookup(Class<T> clazz) {
-        Set<Record<? extends Comparable>> records = modules.get(clazz.getName());
+    /**
+     * @return the weights of the category or null if its records are drawn uniformly
+     */
+    public Weights getWeights(String address) {
+        final Weights found = this.weights.get(address);
+        if (found == null && this.base != null && this.base.frozen) {
+            final Weights inherited = this.base.weights.get(address);
+            if (inherited != null && modules.get(address) != null) {
+                // our category is stacked on the base one, so we need our own alias table
+                return this.weights.computeIfAbsent(address, a -> new Weights(inherited.getWeight()));
+            }
+            return inherited;
+        }
+        return found;
+    }
+
+    /**
+     * Declares a secondary index on a field of a category for {@link com.tcmj.shampug.ShamPug#get(String, String, Comparable)}.
+     * The index is filled lazily on its first use and catches up with records added later on.
+     * @param address name of the category (it doesn't need to exist yet)
+     * @param field the field to be indexed
+     */
+    public void putIndex(String address, String field) {
+        if (this.frozen) {
+            throw new ShamPugException("The base registry is read-only! Cannot put an index for '" + address + "' anymore.");
+        }
+        this.indexes.computeIfAbsent(address, a -> new ConcurrentHashMap<>()).putIfAbsent(field, new HashIndex(field));
+    }
+
+    /**
+     * @return the index of the field or null if the field isn't indexed
+     */
+    public HashIndex getIndex(String address, String field) {
+        final ConcurrentMap<String, HashIndex> own = this.indexes.get(address);
+        final HashIndex found = own == null ? null : own.get(field);
+        if (found == null && this.base != null && this.base.frozen) {
+            final HashIndex inherited = this.base.getIndex(address, field);
+            if (inherited != null && modules.get(address) != null) {
+                // our category is stacked on the base one, so we need our own index
+                return this.indexes.computeIfAbsent(address, a -> new ConcurrentHashMap<>()).computeIfAbsent(field, HashIndex::new);
+            }
+            return inherited;
+        }
+        return found;
+    }
+
+    /**
+     * Declares a sorted index on a numeric field of a category for
+     * {@link com.tcmj.shampug.ShamPug#get(String, com.tcmj.shampug.pub.Range, com.tcmj.shampug.pub.Range...)}.
+     * The index is built lazily on its first use and catches up with records added later on.
+     * @param address name of the category (it doesn't need to exist yet)
+     * @param field the numeric field to be indexed
+     */
+    public void putRangeIndex(String address, String field) {
+        if (this.frozen) {
+            throw new ShamPugException("The base registry is read-only! Cannot put a range index for '" + address + "' anymore.");
+        }
+        this.rangeIndexes.computeIfAbsent(address, a -> new ConcurrentHashMap<>()).putIfAbsent(field, new RangeIndex(field));
+    }
+
+    /**
+     * @return the range index of the field or null if the field isn't range indexed
+     */
+    public RangeIndex getRangeIndex(String address, String field) {
+        final ConcurrentMap<String, RangeIndex> own = this.rangeIndexes.get(address);
+        final RangeIndex found = own == null ? null : own.get(field);
+        if (found == null && this.base != null && this.base.frozen) {
+            final RangeIndex inherited = this.base.getRangeIndex(address, field);
+            if (inherited != null && modules.get(address) != null) {
+                // our category is stacked on the base one, so we need our own index
+                return this.rangeIndexes.computeIfAbsent(address, a -> new ConcurrentHashMap<>()).computeIfAbsent(field, RangeIndex::new);
+            }
+            return inherited;
+        }
+        return found;
+    }
+
+    /**
+     * Per-thread categories are stacked on top of the base ones when they get created, so the base must not change
+     * afterwards. A base which hasn't been loaded yet is frozen empty (waiting for a running {@link #loadBase}).
+     */
+    private void freezeBase() {
+        if (this.base != null && !this.base.frozen) {
+            synchronized (this.base) {
+                this.base.frozen = true;
+            }
+        }
+    }
+
+    /**
+     * Runs the pending loader of the category (if there is one).
+     * @return the loaded category or null if there is neither a loader nor a category
+     */
+    private Category loadPending(String address) {
+        final PendingLoader pending = this.loaders.get(address);
+        if (pending != null) {
+            return pending.load();
+        }
+        // the loader may have been removed by a concurrent load after its category was registered
+        return modules.get(address);
+    }
+
+    private Category newCategory(String address) {
+        if (this.base == null) {
+            return new Category(address);
+        }
+        return new Category(address, this.base.lookup(address), true);
+    }
+
+    public Category lookup(String address) {
+        Category records = modules.get(address);
+        if (records == null) {
+            records = loadPending(address);
+        }
+        if (records == null && this.base != null && this.base.frozen) {
+            return this.base.lookup(address);
+        }
         return records;
     }
 
+    public <T extends Comparable<T>> Category lookup(Class<T> clazz) {
+        return lookup(clazz.getName());
+    }
+
+    /**
+     * @return all categories registered directly in this registry (neither the ones of the base registry nor
+     * categories whose loader didn't run yet)
+     */
+    public Collection<Category> getCategories() {
+        return Collections.unmodifiableCollection(modules.values());
+    }
+
+    /**
+     * Memoizing holder of a category loader. The loader runs under the lock of this holder only - never inside the
+     * registry map - so loading one category doesn't block any other one.
+     */
+    private final class PendingLoader {
+        private final String address;
+        private final Supplier<? extends Category> loader;
+        private boolean loading;
+
+        private PendingLoader(String address, Supplier<? extends Category> loader) {
+            this.address = address;
+            this.loader = loader;
+        }
+
+        private synchronized Category load() {
+            final Category existing = modules.get(this.address);
+            if (existing != null) {
+                return existing;  // loaded while we were waiting
+            }
+            if (this.loading) {
+                throw new ShamPugException("The loader of '" + this.address + "' accessed its own category!");
+            }
+            final Category loaded;
+            this.loading = true;
+            try {
+                loaded = this.loader.get();
+            } finally {
+                this.loading = false;
+            }
+            if (loaded == null || !this.address.equals(loaded.getName())) {
+                throw new ShamPugException("The loader of '" + this.address + "' returned the category " + (loaded == null ? null : "'" + loaded.getName() + "'") + "!");
+            }
+            final Category registered = modules.putIfAbsent(this.address, loaded);
+            loaders.remove(this.address, this);
+            return registered == null ? loaded : registered;
+        }
+    }
+
     public enum Strategy {GLOBAL, PER_TREAD, NEW_INSTANCE}
 }
\ No newline at end of file
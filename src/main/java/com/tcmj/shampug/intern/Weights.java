@@ -0,0 +1,81 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.Record;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Weight function of one category (see {@link Registry#putWeights}) and the {@link AliasTable} built from it.
+ * <p>
+ * The table is built lazily on the first weighted draw and rebuilt on the next draw after records were added.
+ * The weight of every record is computed only once, so a rebuild just evaluates the new records plus the
+ * O(n) table construction. Draws never lock, only the (re)build is synchronized.
+ * </p>
+ */
+public final class Weights {
+
+    private final ToDoubleFunction<? super Record<?>> weight;
+    private volatile Built built;
+    private Category weighed;
+    private double[] weights = new double[0];
+    private int computed;
+
+    public Weights(ToDoubleFunction<? super Record<?>> weight) {
+        this.weight = Objects.requireNonNull(weight, "Please pass a non null weight function!");
+    }
+
+    public ToDoubleFunction<? super Record<?>> getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * @param category the category the weights belong to
+     * @return the alias table covering all current records of the category
+     */
+    public AliasTable table(Category category) {
+        final Built current = this.built;
+        if (current != null && current.category == category && current.table.size() == category.size()) {
+            return current.table;
+        }
+        return rebuild(category);
+    }
+
+    private synchronized AliasTable rebuild(Category category) {
+        final int size = category.size();
+        final Built current = this.built;
+        if (current != null && current.category == category && current.table.size() == size) {
+            return current.table;
+        }
+        if (this.weighed != category) {
+            this.weighed = category;
+            this.computed = 0;
+        }
+        if (this.weights.length < size) {
+            this.weights = Arrays.copyOf(this.weights, Math.max(size, this.weights.length + (this.weights.length >> 1)));
+        }
+        for (int i = this.computed; i < size; i++) {
+            final Record<?> record = category.get(i);
+            final double value = this.weight.applyAsDouble(record);
+            if (value < 0.0 || Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new ShamPugException("Invalid weight " + value + " of the '" + category.getName() + "' record " + record + "!");
+            }
+            this.weights[i] = value;
+        }
+        this.computed = Math.max(this.computed, size);
+        final AliasTable table = AliasTable.of(this.weights, size);
+        this.built = new Built(category, table);
+        return table;
+    }
+
+    private static final class Built {
+        private final Category category;
+        private final AliasTable table;
+
+        private Built(Category category, AliasTable table) {
+            this.category = category;
+            this.table = table;
+        }
+    }
+}
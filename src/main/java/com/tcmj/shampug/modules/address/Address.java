@@ -4,6 +4,7 @@ import com.tcmj.shampug.modules.custom.AbstractRecord;
 import com.tcmj.shampug.pub.RandomUnit;
 import com.tcmj.shampug.util.Strings;
 
+import java.io.IOException;
 import java.util.Objects;
 import java.util.Set;
 
@@ -137,32 +138,73 @@ public class Address extends AbstractRecord<Address> {
 
     public String getStreetLine() {
         if (this.streetLine == null) {
-            this.streetLine = Objects.requireNonNull(this.streetLineFactory, "Please define a LineFactory for the Street!").getLine(this, getRandomUnit());
+            this.streetLine = renderLine(this.streetLineFactory, "Street");
         }
         return this.streetLine;
     }
 
     public String getCityLine() {
         if (this.cityLine == null) {
-            this.cityLine = Objects.requireNonNull(this.cityLineFactory, "Please define a LineFactory for the City!").getLine(this, getRandomUnit());
+            this.cityLine = renderLine(this.cityLineFactory, "City");
         }
         return this.cityLine;
     }
 
     public String getNameLine() {
         if (this.nameLine == null) {
-            this.nameLine = Objects.requireNonNull(this.nameLineFactory, "Please define a LineFactory for the Name!").getLine(this, getRandomUnit());
+            this.nameLine = renderLine(this.nameLineFactory, "Name");
         }
         return this.nameLine;
     }
 
     public String getAdditionalLine() {
         if (this.additionalLine == null) {
-            this.additionalLine = Objects.requireNonNull(this.additionalLineFactory, "Please define a LineFactory for the AdditionalLine!").getLine(this, getRandomUnit());
+            this.additionalLine = renderLine(this.additionalLineFactory, "AdditionalLine");
         }
         return this.additionalLine;
     }
 
+    /**
+     * Writes the street line into the given output. The line is built once like {@link #getStreetLine()} does and kept,
+     * so appending it again or reading it later always gives the same house number.
+     * @param out where to write the line to
+     * @return the given output
+     * @throws IOException if the output cannot be written
+     */
+    public <A extends Appendable> A appendStreetLine(A out) throws IOException {
+        out.append(getStreetLine());
+        return out;
+    }
+
+    /**
+     * Same as {@link #appendStreetLine(Appendable)} for the city line.
+     */
+    public <A extends Appendable> A appendCityLine(A out) throws IOException {
+        out.append(getCityLine());
+        return out;
+    }
+
+    /**
+     * Same as {@link #appendStreetLine(Appendable)} for the name line.
+     */
+    public <A extends Appendable> A appendNameLine(A out) throws IOException {
+        out.append(getNameLine());
+        return out;
+    }
+
+    /**
+     * Same as {@link #appendStreetLine(Appendable)} for the additional line.
+     */
+    public <A extends Appendable> A appendAdditionalLine(A out) throws IOException {
+        out.append(getAdditionalLine());
+        return out;
+    }
+
+    private String renderLine(LineFactory factory, String name) {
+        return Objects.requireNonNull(factory, "Please define a LineFactory for the " + name + "!")
+            .renderLine(this, getRandomUnit(), new StringBuilder(64)).toString();
+    }
+
 
     public String title() {
         return get(TITLE);
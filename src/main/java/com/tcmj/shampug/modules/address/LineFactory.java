@@ -1,13 +1,11 @@
 package com.tcmj.shampug.modules.address;
 
+import com.tcmj.shampug.intern.ShamPugException;
 import com.tcmj.shampug.pub.RandomUnit;
 import com.tcmj.shampug.pub.Record;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.io.IOException;
 import java.util.Objects;
-import java.util.StringJoiner;
 
 /**
  * Factory class to create instances of data classes.
@@ -21,6 +19,8 @@ import java.util.StringJoiner;
  * <li>Additional you can use random numbers starting with a '#'</li>
  * <li>All other text will be interpreted as static text </li>
  * </ul>
+ * The token line gets compiled once into an immutable array of segments, so rendering a line
+ * just walks those segments.
  */
 public class LineFactory {
     /**
@@ -29,16 +29,18 @@ public class LineFactory {
     public static LineFactory DEFAULT_NAME = LineFactory.of("[title] [firstname] [middlename] [lastname]");
 
     private final String lineTokenString;
+    private final Segment[] segments;
 
     public LineFactory(String line) {
         this.lineTokenString = Objects.requireNonNull(line, "Cannot go with a null token line!");
+        this.segments = compile(line);
     }
 
     public static LineFactory of(String lineTokens) {
         return new LineFactory(lineTokens);
     }
 
-    private String harmonize(String value) {
+    private static String harmonize(String value) {
         StringBuilder buffer = new StringBuilder();
         int a = (int) 'a';
         int z = (int) 'z';
@@ -51,129 +53,148 @@ public class LineFactory {
                 buffer.append(single);
             }
         }
-        // System.out.println(" --> " + buffer.toString());
         return buffer.toString();
     }
 
-    public String getLine(Record<?> record, RandomUnit randomUnit) {
-        int position = 0;
-        final Map<Integer, Pair> tokenMap = new HashMap<>();
-        for (String part : lineTokenString.split("\\s")) {
-            String harmonizedPart = harmonize(part);
-            final Comparable comparable = record.get(harmonizedPart);
-            Character type;
-            if (comparable != null) {
-                type = 'F';  // field set
-            } else if (record.getTokens().contains(harmonizedPart)) {
-                type = 'U';  // unset token field
-            } else if (harmonizedPart.startsWith("#")) {
-                type = 'C';  // Comment/hashtag sign
-
-                // count amount of digits and build that random number
-                int amount = harmonizedPart.length();
-                final int lower = (int) (Math.pow(10, (amount - 1)));
-                final int upper = (int) (Math.pow(10, amount) - 1);
-                long result = (long) randomUnit.nextLong(lower, upper);
-                harmonizedPart = String.valueOf(result);
+    /**
+     * Splits the token line once into its typed segments.
+     */
+    private static Segment[] compile(String lineTokens) {
+        final String[] parts = lineTokens.split("\\s");
+        final Segment[] compiled = new Segment[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            final String part = parts[i];
+            final String harmonizedPart = harmonize(part);
+            if (harmonizedPart.startsWith("#")) {
+                compiled[i] = Segment.digits(harmonizedPart.length());
+            } else if (part.startsWith("[")) {
+                compiled[i] = Segment.field(harmonizedPart);
             } else {
-                type = 'K';  // constant case
+                compiled[i] = Segment.literal(harmonizedPart);
             }
-            tokenMap.put(position++, Pair.of(type, harmonizedPart));
         }
-
-        return getData(record, position, tokenMap);
+        return compiled;
     }
 
-    private String getData(Record<?> record, Integer max, Map<Integer, Pair> tokenMap) {
-        System.out.println("max = " + max + " tokenMap = " + tokenMap);
-        StringJoiner builder = new StringJoiner(" ");
-        for (int i = 0; i < max; i++) {
-            final Pair typeAndValue = tokenMap.get(i);
-            switch(typeAndValue.getKey()) {
-                case 'F':
-                    builder.add(record.get(typeAndValue.getValue().toString()));
-                    break;
-                case 'U':
-                    final Comparable comparable = record.get(typeAndValue.getValue().toString());
-                    builder.add(typeAndValue.getValue().toString());
+    public String getLine(Record<?> record, RandomUnit randomUnit) {
+        return renderLine(record, randomUnit, new StringBuilder(this.lineTokenString.length() + 16)).toString();
+    }
 
-                    break;
-                case 'C':
-                    // count amount of digits and build that random number
-                    // int amount = String.valueOf(typeAndValue.getValue()).length();
-                    // final double v = Math.pow(10, amount) - 1;
-
-                    // System.out.println("typeAndValue = " + typeAndValue);
-                    // builder.add("asdf");
-                    builder.add(typeAndValue.getValue().toString());
-                    break;
-                case 'K':
-                    builder.add(typeAndValue.getValue().toString());
-                    break;
-                default:
-                    throw new IllegalStateException("Unknown type: " + typeAndValue.getKey());
+    /**
+     * Renders the line directly into the given output (eg. a {@link java.io.Writer} of a large export file).
+     * No intermediate strings or collections of the whole line are created.
+     * @param record record providing the field values
+     * @param randomUnit used to create the random numbers
+     * @param out where to write the line to (no line separator will be appended)
+     * @param <A> type of the output
+     * @return the given output
+     * @throws IOException if the output cannot be written
+     */
+    public <A extends Appendable> A renderLine(Record<?> record, RandomUnit randomUnit, A out) throws IOException {
+        for (int i = 0; i < this.segments.length; i++) {
+            if (i > 0) {
+                out.append(' ');
             }
+            this.segments[i].render(record, randomUnit, out);
+        }
+        return out;
+    }
+
+    /**
+     * Same as {@link #renderLine(Record, RandomUnit, Appendable)} for a StringBuilder which never throws an IOException.
+     */
+    public StringBuilder renderLine(Record<?> record, RandomUnit randomUnit, StringBuilder out) {
+        try {
+            renderLine(record, randomUnit, (Appendable) out);
+            return out;
+        } catch (IOException e) {
+            throw new ShamPugException("Cannot render line into a StringBuilder!", e);
         }
-        return builder.toString();
     }
 
     public String getLineTokenString() {
         return lineTokenString;
     }
 
-    static class Pair implements Entry<Character, Comparable>, Comparable<Pair> {
-        public final Character type;
-        public final Comparable value;
-
-        public Pair(Character left, Comparable right) {
-            this.type = left;
-            this.value = right;
-        }
-
-        public static Pair of(Character left, Comparable right) {
-            return new Pair(left, right);
-        }
-
-        @Override
-        public Character getKey() {
-            return this.type;
-        }
+    private enum Kind {
+        /** '[field]' - the field value of the record or the field name itself if the record doesn't have a value (unset token). */
+        FIELD,
+        /** '###' - random number having exactly as many digits as there are '#' chars. */
+        DIGITS,
+        /** Any other static text. */
+        LITERAL
+    }
 
-        @Override
-        public Comparable getValue() {
-            return this.value;
+    /**
+     * One precompiled whitespace separated part of the token line.
+     */
+    private static final class Segment {
+        /** 10^18 is the largest power of ten fitting into a long. */
+        private static final int MAX_DIGITS = 18;
+
+        private final Kind kind;
+        private final String text;
+        private final long lower;
+        private final long upper;
+
+        private Segment(Kind kind, String text, long lower, long upper) {
+            this.kind = kind;
+            this.text = text;
+            this.lower = lower;
+            this.upper = upper;
         }
 
-        @Override
-        public Comparable setValue(Comparable value) {
-            return null;
+        static Segment field(String name) {
+            return new Segment(Kind.FIELD, name, 0L, 0L);
         }
 
-        @Override
-        public int compareTo(Pair other) {
-            return (this.getKey() + this.getValue().toString()).compareTo(other.getKey() + other.getValue().toString());
+        static Segment literal(String text) {
+            return new Segment(Kind.LITERAL, text, 0L, 0L);
         }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == this) {
-                return true;
-            } else if (!(obj instanceof Entry)) {
-                return false;
-            } else {
-                Entry<?, ?> other = (Entry) obj;
-                return Objects.equals(this.getKey(), other.getKey()) && Objects.equals(this.getValue(), other.getValue());
+        static Segment digits(int amount) {
+            if (amount > MAX_DIGITS) {
+                throw new IllegalArgumentException("Random numbers are limited to " + MAX_DIGITS + " digits but got " + amount + "!");
             }
+            long lower = 1L;
+            for (int i = 1; i < amount; i++) {
+                lower *= 10L;
+            }
+            // upper bound is exclusive, so 999 will never be created - kept as ever to get the same numbers for the same seed
+            return new Segment(Kind.DIGITS, null, lower, lower * 10L - 1L);
         }
 
-        @Override
-        public int hashCode() {
-            return (this.getKey() == null ? 0 : this.getKey().hashCode()) ^ (this.getValue() == null ? 0 : this.getValue().hashCode());
+        void render(Record<?> record, RandomUnit randomUnit, Appendable out) throws IOException {
+            switch(this.kind) {
+                case FIELD:
+                    final Comparable<?> value = record.get(this.text);
+                    if (value == null) {
+                        out.append(this.text);
+                    } else if (value instanceof CharSequence) {
+                        out.append((CharSequence) value);
+                    } else {
+                        out.append(String.valueOf(value));
+                    }
+                    break;
+                case DIGITS:
+                    final long number = randomUnit.nextLong(this.lower, this.upper);
+                    if (out instanceof StringBuilder) {
+                        ((StringBuilder) out).append(number);
+                    } else {
+                        out.append(Long.toString(number));
+                    }
+                    break;
+                case LITERAL:
+                    out.append(this.text);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown type: " + this.kind);
+            }
         }
 
         @Override
         public String toString() {
-            return "(" + this.getKey() + ',' + this.getValue() + ')';
+            return "(" + this.kind + ',' + (this.kind == Kind.DIGITS ? this.lower + ".." + this.upper : this.text) + ')';
         }
     }
 }
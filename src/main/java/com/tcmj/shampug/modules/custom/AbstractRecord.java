@@ -1,25 +1,67 @@
 package com.tcmj.shampug.modules.custom;
 
+import com.tcmj.shampug.pub.FieldKey;
 import com.tcmj.shampug.pub.RandomUnit;
 import com.tcmj.shampug.pub.Record;
+import com.tcmj.shampug.pub.Schema;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
 /**
  * Base class used for every implementation eg. memory, csv, json and so on
+ * <p>Records are either free-form (every record keeps its own field map) or bound to a {@link Schema}
+ * which is shared by all records of a category. Schema-bound records keep their values in compact arrays
+ * indexed by the slots of the schema. Integer, Long, Double and Boolean values are stored unboxed as raw
+ * long bits, so numeric fields cost no object per value and {@link #getInt(String)} and friends don't unbox.</p>
  * @param <T>
  */
 public abstract class AbstractRecord<T extends Comparable<T>> implements Record<T>, Comparable<T> {
-    protected final Map<String, Comparable<?>> fields = new HashMap<>();
+    private static final Comparable<?>[] NO_OBJECTS = new Comparable<?>[0];
+    private static final long[] NO_PRIMITIVES = new long[0];
+    private static final byte[] NO_KINDS = new byte[0];
+
+    /* kinds of slot values */
+    private static final byte UNSET = 0;
+    private static final byte OBJECT = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+
+    protected final Map<String, Comparable<?>> fields;
     final String pugs;
     final transient RandomUnit randomUnit;
+    private final Schema schema;
+    private Comparable<?>[] objects;
+    private long[] primitives;
+    private byte[] kinds;
 
     public AbstractRecord(String pugs, RandomUnit randomUnit) {
         this.pugs = pugs;
         this.randomUnit = randomUnit;
+        this.fields = new HashMap<>();
+        this.schema = null;
+    }
+
+    public AbstractRecord(Schema schema, RandomUnit randomUnit) {
+        this.schema = Objects.requireNonNull(schema, "Schema may not be null!");
+        this.pugs = schema.getCategory();
+        this.randomUnit = randomUnit;
+        this.fields = null;
+        this.objects = NO_OBJECTS;
+        this.primitives = NO_PRIMITIVES;
+        this.kinds = NO_KINDS;
     }
 
     @Override
@@ -27,27 +69,299 @@ public abstract class AbstractRecord<T extends Comparable<T>> implements Record<
         return this.pugs;
     }
 
+    /**
+     * @return the schema of this record or null if it is a free-form record
+     */
+    public Schema getSchema() {
+        return this.schema;
+    }
+
     @Override
     public <V extends Comparable> V get(String name) {
-        return (V) fields.get(name);
+        if (this.schema == null) {
+            return (V) fields.get(name);
+        }
+        return (V) slot(this.schema.slotOf(name));
     }
 
     @Override
     public <V extends Comparable<? super V>> void set(String field, V value) {
-        fields.put(field, value);
+        if (this.schema == null) {
+            fields.put(field, value);
+        } else {
+            setSlot(this.schema.field(field).getSlot(), value);
+        }
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> V get(FieldKey<V> key) {
+        final int slot = slotOf(key);
+        return slot < 0 ? get(key.getName()) : (V) slot(slot);
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> void set(FieldKey<V> key, V value) {
+        final int slot = slotOf(key);
+        if (slot < 0) {
+            set(key.getName(), value);
+        } else {
+            setSlot(slot, value);
+        }
+    }
+
+    @Override
+    public int getInt(String name) {
+        return getInt(slotOf(name), name);
+    }
+
+    @Override
+    public int getInt(FieldKey<Integer> key) {
+        return getInt(slotOf(key), key.getName());
+    }
+
+    private int getInt(int slot, String name) {
+        return kindOf(slot) == INT ? (int) this.primitives[slot] : Record.super.getInt(name);
+    }
+
+    @Override
+    public long getLong(String name) {
+        return getLong(slotOf(name), name);
+    }
+
+    @Override
+    public long getLong(FieldKey<Long> key) {
+        return getLong(slotOf(key), key.getName());
+    }
+
+    private long getLong(int slot, String name) {
+        final byte kind = kindOf(slot);
+        return kind == LONG || kind == INT ? this.primitives[slot] : Record.super.getLong(name);
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return getDouble(slotOf(name), name);
+    }
+
+    @Override
+    public double getDouble(FieldKey<Double> key) {
+        return getDouble(slotOf(key), key.getName());
+    }
+
+    private double getDouble(int slot, String name) {
+        return kindOf(slot) == DOUBLE ? Double.longBitsToDouble(this.primitives[slot]) : Record.super.getDouble(name);
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return getBoolean(slotOf(name), name);
+    }
+
+    @Override
+    public boolean getBoolean(FieldKey<Boolean> key) {
+        return getBoolean(slotOf(key), key.getName());
     }
 
+    private boolean getBoolean(int slot, String name) {
+        return kindOf(slot) == BOOLEAN ? this.primitives[slot] != 0L : Record.super.getBoolean(name);
+    }
+
+    @Override
+    public void setInt(String field, int value) {
+        if (this.schema == null) {
+            fields.put(field, value);
+        } else {
+            setPrimitive(this.schema.field(field).getSlot(), INT, value);
+        }
+    }
+
+    @Override
+    public void setInt(FieldKey<Integer> key, int value) {
+        final int slot = slotOf(key);
+        if (slot < 0) {
+            setInt(key.getName(), value);
+        } else {
+            setPrimitive(slot, INT, value);
+        }
+    }
+
+    @Override
+    public void setLong(String field, long value) {
+        if (this.schema == null) {
+            fields.put(field, value);
+        } else {
+            setPrimitive(this.schema.field(field).getSlot(), LONG, value);
+        }
+    }
+
+    @Override
+    public void setLong(FieldKey<Long> key, long value) {
+        final int slot = slotOf(key);
+        if (slot < 0) {
+            setLong(key.getName(), value);
+        } else {
+            setPrimitive(slot, LONG, value);
+        }
+    }
+
+    @Override
+    public void setDouble(String field, double value) {
+        if (this.schema == null) {
+            fields.put(field, value);
+        } else {
+            setPrimitive(this.schema.field(field).getSlot(), DOUBLE, Double.doubleToRawLongBits(value));
+        }
+    }
+
+    @Override
+    public void setDouble(FieldKey<Double> key, double value) {
+        final int slot = slotOf(key);
+        if (slot < 0) {
+            setDouble(key.getName(), value);
+        } else {
+            setPrimitive(slot, DOUBLE, Double.doubleToRawLongBits(value));
+        }
+    }
+
+    @Override
+    public void setBoolean(String field, boolean value) {
+        if (this.schema == null) {
+            fields.put(field, value);
+        } else {
+            setPrimitive(this.schema.field(field).getSlot(), BOOLEAN, value ? 1L : 0L);
+        }
+    }
+
+    @Override
+    public void setBoolean(FieldKey<Boolean> key, boolean value) {
+        final int slot = slotOf(key);
+        if (slot < 0) {
+            setBoolean(key.getName(), value);
+        } else {
+            setPrimitive(slot, BOOLEAN, value ? 1L : 0L);
+        }
+    }
+
+    /**
+     * @return the slot of the field or -1 if this isn't a schema-bound record or the schema doesn't know the field
+     */
+    private int slotOf(String name) {
+        return this.schema == null ? -1 : this.schema.slotOf(name);
+    }
+
+    /**
+     * @return the slot of the key or -1 if the key belongs to another schema
+     */
+    private int slotOf(FieldKey<?> key) {
+        return this.schema != null && key.getSchema() == this.schema ? key.getSlot() : -1;
+    }
+
+    private byte kindOf(int slot) {
+        return slot >= 0 && slot < this.kinds.length ? this.kinds[slot] : UNSET;
+    }
+
+    /**
+     * @return the value of the slot (primitives get boxed) or null if not set
+     */
+    private Comparable<?> slot(int slot) {
+        switch (kindOf(slot)) {
+            case OBJECT:
+                return this.objects[slot];
+            case INT:
+                return (int) this.primitives[slot];
+            case LONG:
+                return this.primitives[slot];
+            case DOUBLE:
+                return Double.longBitsToDouble(this.primitives[slot]);
+            case BOOLEAN:
+                return this.primitives[slot] != 0L;
+            default:
+                return null;
+        }
+    }
+
+    private void setSlot(int slot, Comparable<?> value) {
+        if (value instanceof Integer) {
+            setPrimitive(slot, INT, (Integer) value);
+        } else if (value instanceof Long) {
+            setPrimitive(slot, LONG, (Long) value);
+        } else if (value instanceof Double) {
+            setPrimitive(slot, DOUBLE, Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Boolean) {
+            setPrimitive(slot, BOOLEAN, (Boolean) value ? 1L : 0L);
+        } else {
+            ensureSlot(slot);
+            this.objects[slot] = value;
+            this.kinds[slot] = value == null ? UNSET : OBJECT;
+        }
+    }
+
+    private void setPrimitive(int slot, byte kind, long bits) {
+        ensureSlot(slot);
+        this.objects[slot] = null;
+        this.primitives[slot] = bits;
+        this.kinds[slot] = kind;
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot >= this.kinds.length) {
+            final int length = Math.max(slot + 1, this.schema.size());
+            this.objects = Arrays.copyOf(this.objects, length);
+            this.primitives = Arrays.copyOf(this.primitives, length);
+            this.kinds = Arrays.copyOf(this.kinds, length);
+        }
+    }
+
+    /**
+     * @return names of all fields having a value
+     */
+    protected Set<String> fieldNames() {
+        if (this.schema == null) {
+            return this.fields.keySet();
+        }
+        final List<String> names = this.schema.getFieldNames();
+        final Set<String> present = new LinkedHashSet<>();
+        for (int slot = 0; slot < this.kinds.length; slot++) {
+            if (this.kinds[slot] != UNSET) {
+                present.add(names.get(slot));
+            }
+        }
+        return present;
+    }
+
+    /**
+     * @return all field values which are set
+     */
+    protected Collection<Comparable<?>> values() {
+        if (this.schema == null) {
+            return this.fields.values();
+        }
+        final List<Comparable<?>> values = new ArrayList<>(this.kinds.length);
+        for (int slot = 0; slot < this.kinds.length; slot++) {
+            if (this.kinds[slot] != UNSET) {
+                values.add(slot(slot));
+            }
+        }
+        return values;
+    }
 
     @Override
     public int compareTo(T o) {
-        final String a = this.fields.values().stream().map(String::valueOf).collect(Collectors.joining());
-        final String b = (String) ((AbstractRecord) o).fields.values().stream().map(String::valueOf).collect(Collectors.joining());
+        final String a = this.values().stream().map(String::valueOf).collect(Collectors.joining());
+        final String b = ((AbstractRecord<?>) o).values().stream().map(String::valueOf).collect(Collectors.joining());
         return a.compareTo(b);
     }
 
     @Override
     public String toString() {
-        return this.pugs + "@" + Integer.toHexString(hashCode()) + fields;
+        if (this.schema == null) {
+            return this.pugs + "@" + Integer.toHexString(hashCode()) + fields;
+        }
+        final Map<String, Comparable<?>> values = new LinkedHashMap<>();
+        for (String name : fieldNames()) {
+            values.put(name, get(name));
+        }
+        return this.pugs + "@" + Integer.toHexString(hashCode()) + values;
     }
 
     @Override
@@ -55,4 +369,4 @@ public abstract class AbstractRecord<T extends Comparable<T>> implements Record<
         return this.randomUnit;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,417 @@
+package com.tcmj.shampug.modules.custom.csv;
+
+import com.tcmj.shampug.intern.ShamPugException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Scans csv lines directly over the bytes of a (memory-mapped) buffer.
+ * <p>
+ * Numbers and booleans are parsed straight from the bytes, only string values are decoded into Strings.
+ * Quoted values ({@code "a, b"} with {@code ""} as escaped quote) are supported but must not contain line breaks.
+ * Their unescaped content is parsed like any other value of the column, only type inference and values not
+ * matching an inferred type treat them as strings.
+ * One parser must only be used by one thread at a time.
+ * </p>
+ */
+final class CsvParser {
+
+    /** receives the parsed values. */
+    interface RowSink {
+        void row();
+
+        void setInt(int column, int value);
+
+        void setLong(int column, long value);
+
+        void setDouble(int column, double value);
+
+        void setBoolean(int column, boolean value);
+
+        void setString(int column, String value);
+    }
+
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10.0;
+        }
+    }
+
+    private final byte delimiter;
+    private final byte quote;
+    private final CsvType[] types;
+    private final boolean[] strict;
+    private byte[] scratch = new byte[128];
+    private byte[] unquoted = new byte[128];
+    private ByteBuffer unquotedBuffer = ByteBuffer.wrap(this.unquoted);
+    private long parsedLong;
+    private double parsedDouble;
+    private CsvType[] inferred;
+    private long offset;
+
+    /**
+     * @param types the type of each column (AUTO isn't allowed here - infer the types first)
+     * @param strict per column: true if values not matching the type are an error, false to store them anyway
+     */
+    CsvParser(char delimiter, char quote, CsvType[] types, boolean[] strict) {
+        checkSyntax(delimiter, quote);
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.types = types;
+        this.strict = strict;
+    }
+
+    /**
+     * Checks that the delimiter and the quote can be scanned byte by byte.
+     * @throws IllegalArgumentException if one of them is no ascii character, a line break or both are the same
+     */
+    static void checkSyntax(char delimiter, char quote) {
+        checkCharacter("Delimiter", delimiter);
+        checkCharacter("Quote", quote);
+        if (delimiter == quote) {
+            throw new IllegalArgumentException("Delimiter and quote must differ but both are '" + delimiter + "'!");
+        }
+    }
+
+    static void checkCharacter(String name, char c) {
+        if (c > 0x7F || c == '\n' || c == '\r') {
+            throw new IllegalArgumentException(name + " must be an ascii character other than a line break: '" + c + "'!");
+        }
+    }
+
+    /**
+     * Infers the column types of the lines within the buffer.
+     * @param columns amount of columns
+     * @return the type of each column - AUTO if there was no value
+     */
+    CsvType[] infer(ByteBuffer buffer, int columns) {
+        this.inferred = new CsvType[columns];
+        Arrays.fill(this.inferred, CsvType.AUTO);
+        try {
+            parse(buffer, 0L, null);
+            return this.inferred;
+        } finally {
+            this.inferred = null;
+        }
+    }
+
+    /**
+     * Parses all lines of the buffer (from position zero up to its limit).
+     * @param buffer contains complete lines only
+     * @param offset position of the buffer within the file (for error messages)
+     * @param sink receives the values
+     */
+    void parse(ByteBuffer buffer, long offset, RowSink sink) {
+        this.offset = offset;
+        final int end = buffer.limit();
+        int pos = 0;
+        while (pos < end) {
+            final byte first = buffer.get(pos);
+            if (first == '\n') {  // skip empty lines
+                pos++;
+                continue;
+            } else if (first == '\r' && (pos + 1 == end || buffer.get(pos + 1) == '\n')) {
+                pos += 2;
+                continue;
+            }
+            if (sink != null) {
+                sink.row();
+            }
+            int column = 0;
+            while (true) {
+                if (pos < end && buffer.get(pos) == this.quote) {
+                    pos = quoted(buffer, pos, end, column, sink);
+                } else {
+                    final int start = pos;
+                    byte b = 0;
+                    while (pos < end && (b = buffer.get(pos)) != this.delimiter && b != '\n') {
+                        pos++;
+                    }
+                    int fieldEnd = pos;
+                    if (fieldEnd > start && (pos == end || b == '\n') && buffer.get(fieldEnd - 1) == '\r') {
+                        fieldEnd--;
+                    }
+                    value(buffer, start, fieldEnd, column, sink, start, false);
+                }
+                column++;
+                if (pos >= end) {
+                    break;
+                }
+                final byte terminator = buffer.get(pos++);
+                if (terminator == '\n') {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a quoted value starting at the opening quote.
+     * @return position of the delimiter or line break behind the closing quote
+     */
+    private int quoted(ByteBuffer buffer, int pos, int end, int column, RowSink sink) {
+        final int start = pos++;
+        int length = 0;
+        while (true) {
+            if (pos >= end || buffer.get(pos) == '\n') {
+                throw new ShamPugException("Unterminated quoted csv value at byte " + (this.offset + start) + "!");
+            }
+            final byte b = buffer.get(pos++);
+            if (b == this.quote) {
+                if (pos < end && buffer.get(pos) == this.quote) {
+                    pos++;  // escaped quote
+                } else {
+                    break;
+                }
+            }
+            if (length == this.unquoted.length) {
+                this.unquoted = Arrays.copyOf(this.unquoted, length << 1);
+                this.unquotedBuffer = ByteBuffer.wrap(this.unquoted);
+            }
+            this.unquoted[length++] = b;
+        }
+        if (pos < end && buffer.get(pos) == '\r') {
+            pos++;
+        }
+        if (pos < end && buffer.get(pos) != this.delimiter && buffer.get(pos) != '\n') {
+            throw new ShamPugException("Unexpected character behind quoted csv value at byte " + (this.offset + pos) + "!");
+        }
+        value(this.unquotedBuffer, 0, length, column, sink, start, true);
+        return pos;
+    }
+
+    /**
+     * @param position of the value within the buffer (for error messages)
+     * @param quoted true if the value was quoted - which makes it a string unless its column has another type
+     */
+    private void value(ByteBuffer buffer, int start, int end, int column, RowSink sink, int position, boolean quoted) {
+        if (start == end && !quoted) {
+            return;  // missing value
+        }
+        checkColumn(column, position);
+        if (this.inferred != null) {
+            this.inferred[column] = this.inferred[column].merge(quoted ? CsvType.STRING : classify(buffer, start, end));
+            return;
+        }
+        if (start == end) {
+            if (this.types[column] == CsvType.STRING) {
+                sink.setString(column, "");
+            }
+            return;  // an empty quoted value is missing in non-string columns
+        }
+        switch (this.types[column]) {
+            case INT:
+                if (parseLong(buffer, start, end) && this.parsedLong == (int) this.parsedLong) {
+                    sink.setInt(column, (int) this.parsedLong);
+                    return;
+                }
+                break;
+            case LONG:
+                if (parseLong(buffer, start, end)) {
+                    sink.setLong(column, this.parsedLong);
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (parseDouble(buffer, start, end)) {
+                    sink.setDouble(column, this.parsedDouble);
+                    return;
+                }
+                break;
+            case BOOLEAN:
+                final int bool = parseBoolean(buffer, start, end);
+                if (bool >= 0) {
+                    sink.setBoolean(column, bool == 1);
+                    return;
+                }
+                break;
+            default:
+                sink.setString(column, decode(buffer, start, end));
+                return;
+        }
+        if (this.strict[column]) {
+            throw new ShamPugException("Csv value '" + decode(buffer, start, end) + "' at byte " + (this.offset + position)
+                + " is no " + this.types[column] + "!");
+        }
+        // doesn't fit the inferred type - keep it using its own type
+        switch (quoted ? CsvType.STRING : classify(buffer, start, end)) {
+            case INT:
+            case LONG:
+                sink.setLong(column, this.parsedLong);
+                break;
+            case DOUBLE:
+                sink.setDouble(column, this.parsedDouble);
+                break;
+            case BOOLEAN:
+                sink.setBoolean(column, parseBoolean(buffer, start, end) == 1);
+                break;
+            default:
+                sink.setString(column, decode(buffer, start, end));
+        }
+    }
+
+    private void checkColumn(int column, int position) {
+        if (column >= this.types.length) {
+            throw new ShamPugException("Csv line at byte " + (this.offset + position) + " has more than "
+                + this.types.length + " values!");
+        }
+    }
+
+    /**
+     * @return the narrowest type of the value
+     */
+    private CsvType classify(ByteBuffer buffer, int start, int end) {
+        if (parseLong(buffer, start, end)) {
+            return this.parsedLong == (int) this.parsedLong ? CsvType.INT : CsvType.LONG;
+        } else if (parseDouble(buffer, start, end)) {
+            return CsvType.DOUBLE;
+        } else if (parseBoolean(buffer, start, end) >= 0) {
+            return CsvType.BOOLEAN;
+        }
+        return CsvType.STRING;
+    }
+
+    /**
+     * Parses an optionally signed integer into {@link #parsedLong}.
+     * @return false if it's no integer or it doesn't fit into a long
+     */
+    private boolean parseLong(ByteBuffer buffer, int start, int end) {
+        int pos = start;
+        final byte sign = buffer.get(pos);
+        final boolean negative = sign == '-';
+        if (negative || sign == '+') {
+            pos++;
+        }
+        if (pos == end || end - pos > 19) {
+            return false;
+        }
+        long value = 0;
+        while (pos < end) {
+            final int digit = buffer.get(pos++) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 - digit;  // accumulate negatively to reach Long.MIN_VALUE
+            if (value > 0) {
+                return false;  // overflow
+            }
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                return false;
+            }
+            value = -value;
+        }
+        this.parsedLong = value;
+        return true;
+    }
+
+    /**
+     * Parses a decimal number into {@link #parsedDouble}. Numbers with up to 15 significant digits and without
+     * exponent are computed exactly from their digits, all others are handed to {@link Double#parseDouble}.
+     * @return false if it's no decimal number
+     */
+    private boolean parseDouble(ByteBuffer buffer, int start, int end) {
+        int pos = start;
+        final byte sign = buffer.get(pos);
+        final boolean negative = sign == '-';
+        if (negative || sign == '+') {
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        boolean exponent = false;
+        for (; pos < end; pos++) {
+            final byte b = buffer.get(pos);
+            if (b >= '0' && b <= '9') {
+                if (mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                if (digits <= 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                }
+                if (fraction >= 0) {
+                    fraction++;
+                }
+            } else if (b == '.' && fraction < 0) {
+                fraction = 0;
+            } else if ((b == 'e' || b == 'E') && pos > start) {
+                exponent = isExponent(buffer, pos + 1, end);
+                if (!exponent) {
+                    return false;
+                }
+                break;
+            } else {
+                return false;
+            }
+        }
+        final int integerEnd = exponent ? pos : end;
+        if (integerEnd - start - (negative || sign == '+' ? 1 : 0) - (fraction >= 0 ? 1 : 0) <= 0) {
+            return false;  // no digits at all
+        }
+        if (!exponent && digits <= 15 && fraction <= 22) {
+            final double value = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+            this.parsedDouble = negative ? -value : value;
+            return true;
+        }
+        this.parsedDouble = Double.parseDouble(decode(buffer, start, end));
+        return true;
+    }
+
+    private static boolean isExponent(ByteBuffer buffer, int pos, int end) {
+        if (pos < end && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+            pos++;
+        }
+        if (pos == end) {
+            return false;
+        }
+        for (; pos < end; pos++) {
+            final byte b = buffer.get(pos);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 1 for true, 0 for false (case insensitive) and -1 if it's no boolean
+     */
+    private static int parseBoolean(ByteBuffer buffer, int start, int end) {
+        if (matches(buffer, start, end, "true")) {
+            return 1;
+        } else if (matches(buffer, start, end, "false")) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, int end, String lowerCase) {
+        if (end - start != lowerCase.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length(); i++) {
+            if ((buffer.get(start + i) | 0x20) != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        final int length = end - start;
+        if (length > this.scratch.length) {
+            this.scratch = new byte[Math.max(length, this.scratch.length << 1)];
+        }
+        for (int i = 0; i < length; i++) {
+            this.scratch[i] = buffer.get(start + i);
+        }
+        return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,32 @@
+package com.tcmj.shampug.modules.custom.csv;
+
+/**
+ * Value type of a csv column (see {@link CustomCsvLoader#withType(String, CsvType)}).
+ */
+public enum CsvType {
+    /** the type gets inferred from the first lines of the file. */
+    AUTO,
+    INT,
+    LONG,
+    DOUBLE,
+    BOOLEAN,
+    STRING;
+
+    /**
+     * @return the narrowest type which is able to hold values of both types
+     */
+    CsvType merge(CsvType other) {
+        if (this == AUTO || this == other) {
+            return other;
+        } else if (other == AUTO) {
+            return this;
+        } else if (isNumeric() && other.isNumeric()) {
+            return compareTo(other) > 0 ? this : other;
+        }
+        return STRING;
+    }
+
+    private boolean isNumeric() {
+        return this == INT || this == LONG || this == DOUBLE;
+    }
+}
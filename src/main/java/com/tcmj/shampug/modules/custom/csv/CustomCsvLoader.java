@@ -0,0 +1,445 @@
+package com.tcmj.shampug.modules.custom.csv;
+
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.mem.ColumnarCategory;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.FieldKey;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Schema;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * <h2>Csv loader for custom categories</h2>
+ * The file gets memory-mapped in chunks of whole lines which are scanned directly over their bytes - there is
+ * no line reading and no {@link String#split}. The first line has to contain the field names.
+ * <pre>
+ * name,weight,leader,color
+ * Baby,6.5,false,S
+ * Emmy,5.0,true,S
+ * </pre>
+ * Column types are inferred from the first lines unless they are given explicitly:
+ * <pre>
+ * CustomCsvLoader loader = new CustomCsvLoader(shamPug).withType("weight", CsvType.DOUBLE);
+ * shamPug.put(loader.loadColumnar("pugs", path));                        // large read-only data sets
+ * shamPug.put(loader.parallel(true).loadRecords("pugs", path));         // CustomMem records
+ * shamPug.putLoader("pugs", loader.categoryFromFile("pugs", path));     // loads on first access
+ * </pre>
+ * Quoted values ({@code "Vienna, Austria"}) must not contain line breaks. They count as strings when inferring
+ * the column types, in columns of another type their content is parsed like an unquoted value.
+ * Values which don't match an inferred type are kept with their own type (quoted ones as strings), values which
+ * don't match an explicitly given type are an error.
+ */
+public class CustomCsvLoader {
+
+    /** slf4j Logging framework. */
+    private static final Logger LOG = getLogger(CustomCsvLoader.class);
+
+    /** amount of bytes mapped and parsed at once. */
+    static final int CHUNK_SIZE = 16 << 20;
+    /** amount of bytes used to infer the column types. */
+    private static final int SAMPLE_SIZE = 1 << 20;
+
+    private final RandomUnit randomUnit;
+    private final Map<String, CsvType> types = new HashMap<>();
+    private char delimiter = ',';
+    private char quote = '"';
+    private boolean parallel;
+    private int chunkSize = CHUNK_SIZE;
+
+    public CustomCsvLoader(ShamPug shamPug) {
+        this.randomUnit = Objects.requireNonNull(shamPug, "ShamPug may not be null in CustomCsvLoader!").getRandomUnit();
+    }
+
+    /**
+     * @param delimiter an ascii character other than a line break (default ',')
+     */
+    public CustomCsvLoader withDelimiter(char delimiter) {
+        CsvParser.checkCharacter("Delimiter", delimiter);
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * @param quote an ascii character other than a line break (default '"')
+     */
+    public CustomCsvLoader withQuote(char quote) {
+        CsvParser.checkCharacter("Quote", quote);
+        this.quote = quote;
+        return this;
+    }
+
+    /**
+     * Defines the type of a column instead of inferring it.
+     * @param field name of the column (as in the header line)
+     * @param type value type - {@link CsvType#AUTO} to infer it again
+     */
+    public CustomCsvLoader withType(String field, CsvType type) {
+        this.types.put(Objects.requireNonNull(field, "Field name may not be null!"), Objects.requireNonNull(type, "CsvType may not be null!"));
+        return this;
+    }
+
+    /**
+     * Parses the chunks of the file in parallel (using the common fork join pool) when loading records.
+     * Columnar categories are always built by a single thread.
+     */
+    public CustomCsvLoader parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    CustomCsvLoader withChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Loads the file into a category of schema-bound {@link CustomMem} records (numbers are stored unboxed).
+     * @param category name of the category
+     * @param file csv file with a header line
+     */
+    public Category loadRecords(String category, Path file) throws IOException {
+        final Schema schema = new Schema(category);
+        final Category records = new Category(category);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final Layout layout = layout(channel, file);
+            final FieldKey<?>[] keys = keys(schema, layout.header);
+            final List<long[]> chunks = chunks(channel, layout.dataStart);
+            final List<List<CustomMem>> parsed;
+            try {
+                parsed = (this.parallel ? chunks.parallelStream() : chunks.stream())
+                    .map(chunk -> parseRecords(channel, chunk, layout, schema, keys))
+                    .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (List<CustomMem> chunk : parsed) {
+                records.addAll(chunk);
+            }
+        }
+        LOG.debug("Loaded {} '{}' records from {}", records.size(), category, file);
+        return records;
+    }
+
+    /**
+     * Loads the file into a read-only {@link ColumnarCategory} (numbers, booleans and strings are stored
+     * in typed column arrays).
+     * @param category name of the category
+     * @param file csv file with a header line
+     */
+    public ColumnarCategory loadColumnar(String category, Path file) throws IOException {
+        final ColumnarCategory.Builder builder = ColumnarCategory.builder(category, this.randomUnit);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final Layout layout = layout(channel, file);
+            final FieldKey<?>[] keys = keys(builder.getSchema(), layout.header);
+            final CsvParser parser = new CsvParser(this.delimiter, this.quote, layout.types, layout.strict);
+            final CsvParser.RowSink sink = new ColumnarSink(builder, keys);
+            for (long[] chunk : chunks(channel, layout.dataStart)) {
+                parser.parse(map(channel, chunk), chunk[0], sink);
+            }
+        }
+        LOG.debug("Loaded {} '{}' columnar records from {}", builder.size(), category, file);
+        return builder.build();
+    }
+
+    /**
+     * Creates a lazy loader (see {@link ShamPug#putLoader}) which loads the file into a columnar category.
+     * @param category name of the category
+     * @param file csv file with a header line
+     */
+    public Supplier<Category> categoryFromFile(String category, Path file) {
+        Objects.requireNonNull(file, "Csv file may not be null!");
+        return () -> {
+            try {
+                return loadColumnar(category, file);
+            } catch (IOException e) {
+                throw new ShamPugException("Cannot load the '" + category + "' records from " + file + "!", e);
+            }
+        };
+    }
+
+    private List<CustomMem> parseRecords(FileChannel channel, long[] chunk, Layout layout, Schema schema, FieldKey<?>[] keys) {
+        final RecordSink sink = new RecordSink(schema, keys, this.randomUnit);
+        try {
+            new CsvParser(this.delimiter, this.quote, layout.types, layout.strict).parse(map(channel, chunk), chunk[0], sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sink.records;
+    }
+
+    private static FieldKey<?>[] keys(Schema schema, String[] header) {
+        final FieldKey<?>[] keys = new FieldKey<?>[header.length];
+        for (int i = 0; i < header.length; i++) {
+            keys[i] = schema.field(header[i]);
+        }
+        return keys;
+    }
+
+    /**
+     * Reads the header line and infers the column types.
+     */
+    private Layout layout(FileChannel channel, Path file) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = 0;
+        long dataStart = -1;
+        while (dataStart < 0) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read <= 0) {
+                dataStart = position;
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    dataStart = position + i + 1;
+                    break;
+                }
+                line.write(buffer.get(i));
+            }
+            position += read;
+        }
+        String headerLine = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        if (headerLine.endsWith("\r")) {
+            headerLine = headerLine.substring(0, headerLine.length() - 1);
+        }
+        if (headerLine.trim().isEmpty()) {
+            throw new ShamPugException("Csv file " + file + " doesn't start with a header line!");
+        }
+        final String[] header = splitHeader(headerLine);
+
+        final CsvType[] columnTypes = new CsvType[header.length];
+        final boolean[] strict = new boolean[header.length];
+        boolean infer = false;
+        for (int i = 0; i < header.length; i++) {
+            columnTypes[i] = this.types.getOrDefault(header[i], CsvType.AUTO);
+            strict[i] = columnTypes[i] != CsvType.AUTO;
+            infer |= !strict[i];
+        }
+        if (infer) {
+            final long[] sample = sample(channel, dataStart);
+            final CsvType[] inferred = sample[1] > sample[0]
+                ? new CsvParser(this.delimiter, this.quote, columnTypes, strict).infer(map(channel, sample), header.length)
+                : new CsvType[header.length];
+            for (int i = 0; i < header.length; i++) {
+                if (!strict[i]) {
+                    columnTypes[i] = inferred[i] == null || inferred[i] == CsvType.AUTO ? CsvType.STRING : inferred[i];
+                }
+            }
+            LOG.debug("Inferred csv column types {} = {}", header, columnTypes);
+        }
+        return new Layout(header, columnTypes, strict, dataStart);
+    }
+
+    private String[] splitHeader(String line) {
+        final List<String> names = new ArrayList<>();
+        final StringBuilder name = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (c == this.quote) {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == this.quote) {
+                    name.append(c);
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == this.delimiter && !quoted) {
+                names.add(name.toString().trim());
+                name.setLength(0);
+            } else {
+                name.append(c);
+            }
+        }
+        names.add(name.toString().trim());
+        return names.toArray(new String[0]);
+    }
+
+    /**
+     * @return the region of the first complete lines used to infer the column types
+     */
+    private long[] sample(FileChannel channel, long dataStart) throws IOException {
+        final long end = Math.min(channel.size(), dataStart + SAMPLE_SIZE);
+        if (end == channel.size()) {
+            return new long[]{dataStart, end};
+        }
+        final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, end - dataStart);
+        int last = region.limit() - 1;
+        while (last >= 0 && region.get(last) != '\n') {
+            last--;
+        }
+        return new long[]{dataStart, dataStart + last + 1};
+    }
+
+    /**
+     * Splits the data part of the file into regions of whole lines of about {@link #chunkSize} bytes.
+     * @return start (inclusive) and end (exclusive) position of each chunk
+     */
+    private List<long[]> chunks(FileChannel channel, long dataStart) throws IOException {
+        final long size = channel.size();
+        final List<long[]> chunks = new ArrayList<>();
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long start = dataStart;
+        while (start < size) {
+            long end = Math.min(size, start + this.chunkSize);
+            // move the end behind the next line break
+            while (end < size) {
+                buffer.clear();
+                final int read = channel.read(buffer, end);
+                int i = 0;
+                while (i < read && buffer.get(i) != '\n') {
+                    i++;
+                }
+                end += i;
+                if (i < read) {
+                    end++;
+                    break;
+                }
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new ShamPugException("Csv line at byte " + start + " is too long!");
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long[] chunk) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+    }
+
+    /**
+     * Header and column types of a csv file.
+     */
+    private static final class Layout {
+        private final String[] header;
+        private final CsvType[] types;
+        private final boolean[] strict;
+        private final long dataStart;
+
+        private Layout(String[] header, CsvType[] types, boolean[] strict, long dataStart) {
+            this.header = header;
+            this.types = types;
+            this.strict = strict;
+            this.dataStart = dataStart;
+        }
+    }
+
+    /**
+     * Creates one schema-bound CustomMem per line.
+     */
+    @SuppressWarnings("unchecked")
+    private static final class RecordSink implements CsvParser.RowSink {
+        private final Schema schema;
+        private final FieldKey<?>[] keys;
+        private final RandomUnit randomUnit;
+        private final List<CustomMem> records = new ArrayList<>();
+        private CustomMem current;
+
+        private RecordSink(Schema schema, FieldKey<?>[] keys, RandomUnit randomUnit) {
+            this.schema = schema;
+            this.keys = keys;
+            this.randomUnit = randomUnit;
+        }
+
+        @Override
+        public void row() {
+            this.current = new CustomMem(this.schema, this.randomUnit);
+            this.records.add(this.current);
+        }
+
+        @Override
+        public void setInt(int column, int value) {
+            this.current.setInt((FieldKey<Integer>) this.keys[column], value);
+        }
+
+        @Override
+        public void setLong(int column, long value) {
+            this.current.setLong((FieldKey<Long>) this.keys[column], value);
+        }
+
+        @Override
+        public void setDouble(int column, double value) {
+            this.current.setDouble((FieldKey<Double>) this.keys[column], value);
+        }
+
+        @Override
+        public void setBoolean(int column, boolean value) {
+            this.current.setBoolean((FieldKey<Boolean>) this.keys[column], value);
+        }
+
+        @Override
+        public void setString(int column, String value) {
+            this.current.set((FieldKey<String>) this.keys[column], value);
+        }
+    }
+
+    /**
+     * Appends each line as row to a columnar category.
+     */
+    @SuppressWarnings("unchecked")
+    private static final class ColumnarSink implements CsvParser.RowSink {
+        private final ColumnarCategory.Builder builder;
+        private final FieldKey<?>[] keys;
+
+        private ColumnarSink(ColumnarCategory.Builder builder, FieldKey<?>[] keys) {
+            this.builder = builder;
+            this.keys = keys;
+        }
+
+        @Override
+        public void row() {
+            this.builder.row();
+        }
+
+        @Override
+        public void setInt(int column, int value) {
+            this.builder.setInt((FieldKey<Integer>) this.keys[column], value);
+        }
+
+        @Override
+        public void setLong(int column, long value) {
+            this.builder.setLong((FieldKey<Long>) this.keys[column], value);
+        }
+
+        @Override
+        public void setDouble(int column, double value) {
+            this.builder.setDouble((FieldKey<Double>) this.keys[column], value);
+        }
+
+        @Override
+        public void setBoolean(int column, boolean value) {
+            this.builder.setBoolean((FieldKey<Boolean>) this.keys[column], value);
+        }
+
+        @Override
+        public void setString(int column, String value) {
+            this.builder.set(this.keys[column], value);
+        }
+    }
+}
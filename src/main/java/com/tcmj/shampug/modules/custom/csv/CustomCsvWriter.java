@@ -0,0 +1,434 @@
+package com.tcmj.shampug.modules.custom.csv;
+
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.pub.Record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <h2>Csv writer for data records</h2>
+ * Encodes records (eg. {@link com.tcmj.shampug.modules.custom.mem.CustomMem} or
+ * {@link com.tcmj.shampug.modules.address.Address}) straight into a reusable byte buffer which gets written
+ * through a channel whenever it is full. Numbers are encoded without any intermediate Strings, values
+ * containing the delimiter, quotes or line breaks are quoted (quotes are doubled). So are strings which
+ * would otherwise be read back as numbers, booleans or missing values (eg. '040', 'true' or '').
+ * <pre>
+ * try (CustomCsvWriter writer = new CustomCsvWriter(path).withColumns("name", "weight")) {
+ *     writer.write(shamPug.stream("pugs", 100_000_000));
+ * }
+ * // or split the records into shard files written in parallel:
+ * CustomCsvWriter.writeShards(shamPug.stream("pugs", 100_000_000), directory, "pugs", 8, writer -> writer.withDelimiter(';'));
+ * </pre>
+ * The columns are taken from the tokens of the first record unless they are given explicitly.
+ * Lines end with a single line feed.
+ */
+public class CustomCsvWriter implements Closeable {
+
+    /** size of the byte buffer. */
+    static final int BUFFER_SIZE = 1 << 18;
+
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] MIN_LONG = String.valueOf(Long.MIN_VALUE).getBytes();
+
+    private final WritableByteChannel channel;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(this.bytes);
+    private int position;
+    private char delimiter = ',';
+    private char quote = '"';
+    private boolean header = true;
+    private String[] columns;
+    private boolean started;
+    private long written;
+
+    /**
+     * Creates (or truncates) the file.
+     */
+    public CustomCsvWriter(Path file) throws IOException {
+        this(FileChannel.open(Objects.requireNonNull(file, "Csv file may not be null!"),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * @param channel receives the utf-8 encoded csv lines - will be closed by {@link #close()}
+     */
+    public CustomCsvWriter(WritableByteChannel channel) {
+        this.channel = Objects.requireNonNull(channel, "Channel may not be null!");
+    }
+
+    /**
+     * @param delimiter an ascii character other than a line break (default ',')
+     */
+    public CustomCsvWriter withDelimiter(char delimiter) {
+        checkNotStarted();
+        CsvParser.checkCharacter("Delimiter", delimiter);
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * @param quote an ascii character other than a line break (default '"')
+     */
+    public CustomCsvWriter withQuote(char quote) {
+        checkNotStarted();
+        CsvParser.checkCharacter("Quote", quote);
+        this.quote = quote;
+        return this;
+    }
+
+    /**
+     * Defines the columns (and their order). Fields of the records which aren't columns are skipped.
+     */
+    public CustomCsvWriter withColumns(String... columns) {
+        checkNotStarted();
+        this.columns = columns.clone();
+        return this;
+    }
+
+    /**
+     * Skips the header line containing the column names.
+     */
+    public CustomCsvWriter withoutHeader() {
+        checkNotStarted();
+        this.header = false;
+        return this;
+    }
+
+    private void checkNotStarted() {
+        if (this.started) {
+            throw new IllegalStateException("CustomCsvWriter has already started writing!");
+        }
+    }
+
+    /**
+     * Writes a single record as one line.
+     * @return this writer
+     */
+    public CustomCsvWriter write(Record<?> record) throws IOException {
+        if (!this.started) {
+            start(record);
+        }
+        for (int i = 0; i < this.columns.length; i++) {
+            if (i > 0) {
+                ensure(1);
+                this.bytes[this.position++] = (byte) this.delimiter;
+            }
+            writeValue(record.get(this.columns[i]));
+        }
+        ensure(1);
+        this.bytes[this.position++] = '\n';
+        this.written++;
+        return this;
+    }
+
+    /**
+     * Writes all records of the iterator.
+     * @return amount of records written
+     */
+    public long write(Iterator<? extends Record<?>> records) throws IOException {
+        long amount = 0;
+        while (records.hasNext()) {
+            write(records.next());
+            amount++;
+        }
+        return amount;
+    }
+
+    /**
+     * Writes all records of the stream (in encounter order).
+     * @return amount of records written
+     */
+    public long write(Stream<? extends Record<?>> records) throws IOException {
+        return write(records.iterator());
+    }
+
+    /**
+     * @return amount of records written so far
+     */
+    public long getWritten() {
+        return this.written;
+    }
+
+    private void start(Record<?> first) throws IOException {
+        CsvParser.checkSyntax(this.delimiter, this.quote);
+        if (this.columns == null) {
+            if (first == null) {
+                throw new ShamPugException("Please define the csv columns - there is no record to take them from!");
+            }
+            this.columns = first.getTokens().toArray(new String[0]);
+        }
+        this.started = true;
+        if (this.header) {
+            for (int i = 0; i < this.columns.length; i++) {
+                if (i > 0) {
+                    ensure(1);
+                    this.bytes[this.position++] = (byte) this.delimiter;
+                }
+                writeString(this.columns[i], false);
+            }
+            ensure(1);
+            this.bytes[this.position++] = '\n';
+        }
+    }
+
+    private void writeValue(Comparable<?> value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            writeBytes((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double || value instanceof Float || value instanceof Number) {
+            writeAscii(value.toString());
+        } else {
+            writeString(value.toString(), true);
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeBytes(MIN_LONG);
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            this.bytes[this.position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int pos = this.position + digits;
+        this.position = pos;
+        do {
+            this.bytes[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private void writeBytes(byte[] value) throws IOException {
+        ensure(value.length);
+        System.arraycopy(value, 0, this.bytes, this.position, value.length);
+        this.position += value.length;
+    }
+
+    /**
+     * Writes a string which is known to consist of ascii characters which don't need any quoting.
+     */
+    private void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            ensure(1);
+            this.bytes[this.position++] = (byte) value.charAt(i);
+        }
+    }
+
+    /**
+     * Writes the string utf-8 encoded and quoted if necessary.
+     * @param text true for values which have to be read back as strings (see {@link #looksTyped(String)})
+     */
+    private void writeString(String value, boolean text) throws IOException {
+        final boolean quoted = needsQuotes(value) || (text && looksTyped(value));
+        if (quoted) {
+            ensure(1);
+            this.bytes[this.position++] = (byte) this.quote;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            ensure(4);
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == this.quote) {
+                    this.bytes[this.position++] = (byte) c;
+                }
+                this.bytes[this.position++] = (byte) c;
+            } else if (c < 0x800) {
+                this.bytes[this.position++] = (byte) (0xC0 | c >> 6);
+                this.bytes[this.position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                this.bytes[this.position++] = (byte) (0xF0 | codePoint >> 18);
+                this.bytes[this.position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                this.bytes[this.position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                this.bytes[this.position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                this.bytes[this.position++] = '?';  // unpaired surrogate
+            } else {
+                this.bytes[this.position++] = (byte) (0xE0 | c >> 12);
+                this.bytes[this.position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                this.bytes[this.position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        if (quoted) {
+            ensure(1);
+            this.bytes[this.position++] = (byte) this.quote;
+        }
+    }
+
+    private boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == this.delimiter || c == this.quote || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the {@link CustomCsvLoader} might read the unquoted value as something else than a string: empty values
+     * are missing ones, numbers and booleans would be inferred as such (eg. '040' or 'true').
+     * Unnecessary quotes don't harm, so anything consisting of digits, signs, dots and exponents is quoted.
+     */
+    static boolean looksTyped(String value) {
+        if (value.isEmpty() || "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return true;
+        }
+        boolean digits = false;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c != '+' && c != '-' && c != '.' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    /**
+     * Makes sure there are at least the given amount of bytes free in the buffer.
+     */
+    private void ensure(int required) throws IOException {
+        if (this.position + required > this.bytes.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        this.buffer.clear();
+        this.buffer.limit(this.position);
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.position = 0;
+    }
+
+    /**
+     * Writes all buffered bytes to the channel.
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Flushes the buffer and closes the channel. The header line is written even if there haven't been any records
+     * (as long as the columns are defined).
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!this.started && this.columns != null) {
+                start(null);
+            }
+            flushBuffer();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Splits the records into (up to) the given amount of parts which are written in parallel, each into its own file
+     * named {@code <prefix>-000.csv}, {@code <prefix>-001.csv} and so on. Only the first shard starts with the header
+     * line, so the shards concatenated in the order of their names form one csv file holding the records in encounter
+     * order. Splitting works best with sized streams like the
+     * ones of {@link com.tcmj.shampug.ShamPug#stream(String, long)}.
+     * @param records the records to be written
+     * @param directory target directory of the shard files
+     * @param prefix file name prefix of the shard files
+     * @param shards maximum amount of shard files
+     * @param settings applied to each shard writer (eg. delimiter or columns) - the columns of the first record
+     *                 are used for all shards if they aren't defined
+     * @return the shard files
+     */
+    public static List<Path> writeShards(Stream<? extends Record<?>> records, Path directory, String prefix, int shards,
+                                         Consumer<CustomCsvWriter> settings) throws IOException {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Amount of shards must be at least 1 but was " + shards + "!");
+        }
+        final Spliterator<? extends Record<?>> root = records.spliterator();
+        final List<Record<?>> first = new ArrayList<>(1);
+        root.tryAdvance(first::add);
+
+        final List<Spliterator<? extends Record<?>>> parts = new ArrayList<>();
+        parts.add(root);
+        boolean splitting = true;
+        while (splitting && parts.size() < shards) {
+            splitting = false;
+            for (int i = 0; i < parts.size() && parts.size() < shards; i++) {
+                final Spliterator<? extends Record<?>> prefixPart = parts.get(i).trySplit();
+                if (prefixPart != null) {
+                    parts.add(i++, prefixPart);
+                    splitting = true;
+                }
+            }
+        }
+
+        // all shards default to the columns of the very first record
+        final String[] firstColumns = first.isEmpty() ? null : first.get(0).getTokens().toArray(new String[0]);
+        try {
+            return IntStream.range(0, parts.size()).parallel().mapToObj(shard -> {
+                final Path file = directory.resolve(String.format("%s-%03d.csv", prefix, shard));
+                try (CustomCsvWriter writer = new CustomCsvWriter(file)) {
+                    settings.accept(writer);
+                    if (shard > 0) {
+                        writer.withoutHeader();
+                    }
+                    if (firstColumns != null && writer.columns == null) {
+                        writer.withColumns(firstColumns);
+                    }
+                    if (shard == 0 && !first.isEmpty()) {
+                        writer.write(first.get(0));
+                    }
+                    final Spliterator<? extends Record<?>> part = parts.get(shard);
+                    final IOException[] failure = new IOException[1];
+                    while (failure[0] == null && part.tryAdvance(record -> {
+                        try {
+                            writer.write(record);
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    })) {
+                        // writes record by record
+                    }
+                    if (failure[0] != null) {
+                        throw failure[0];
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return file;
+            }).collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -25,13 +25,13 @@ public class CustomJson extends AbstractRecord<CustomJson> {
 
     @Override
     public int compareTo(CustomJson o) {
-        final String a = this.fields.values().stream().map(String::valueOf).collect(Collectors.joining());
-        final String b = o.fields.values().stream().map(String::valueOf).collect(Collectors.joining());
+        final String a = this.values().stream().map(String::valueOf).collect(Collectors.joining());
+        final String b = o.values().stream().map(String::valueOf).collect(Collectors.joining());
         return a.compareTo(b);
     }
 
     @Override
     public Set<String> getTokens() {
-        return null;
+        return fieldNames();
     }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.tcmj.shampug.modules.custom.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Record;
+import com.tcmj.shampug.pub.Schema;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * <h2>Streaming loader for json data records</h2>
+ * Walks the tokens of a {@link JsonParser} and hands out every record as soon as it is complete - the document
+ * is never materialized as a tree, so there is no extra memory needed beyond the records themselves.
+ * <pre>
+ * {
+ *   "pugs": [
+ *     {"name": "Baby", "weight": 6.5, "leader": false},
+ *     {"name": "Emmy", "weight": 5.0, "leader": true}
+ *   ],
+ *   "countries": [ ... ]
+ * }
+ * </pre>
+ * All records of one category share a {@link Schema}, numbers and booleans are stored unboxed.
+ * <pre>
+ * int amount = new CustomJsonLoader(shamPug).load(inputStream);  // puts all records into shamPug
+ * shamPug.putLoader("pugs", loader.categoryFromFile("pugs", path)); // loads the 'pugs' on their first access only
+ * </pre>
+ */
+public class CustomJsonLoader {
+
+    /** slf4j Logging framework. */
+    private static final Logger LOG = getLogger(CustomJsonLoader.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ShamPug shamPug;
+    private final Map<String, Schema> schemas = new ConcurrentHashMap<>();
+
+    public CustomJsonLoader(ShamPug shamPug) {
+        this.shamPug = Objects.requireNonNull(shamPug, "ShamPug may not be null in CustomJsonLoader!");
+    }
+
+    /**
+     * Reads all records of the json stream and puts them into the ShamPug instance.
+     * @param in json data - will be closed afterwards
+     * @return amount of records loaded
+     */
+    public int load(InputStream in) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            return load(parser, this.shamPug::put);
+        }
+    }
+
+    /**
+     * Reads all records of the json object the parser points to (or will point to next).
+     * The parser is left on the closing END_OBJECT token as expected by jackson deserializers.
+     * @param parser the json parser
+     * @param consumer receives every record as soon as it is complete
+     * @return amount of records read
+     */
+    public int load(JsonParser parser, Consumer<? super Record<CustomMem>> consumer) throws IOException {
+        return load(parser, category -> true, consumer);
+    }
+
+    /**
+     * Reads the records of some categories of the json object the parser points to (or will point to next).
+     * All other categories are skipped without creating any records.
+     * @param parser the json parser
+     * @param categories decides by the category name whether its records are read
+     * @param consumer receives every record as soon as it is complete
+     * @return amount of records read
+     */
+    public int load(JsonParser parser, Predicate<String> categories, Consumer<? super Record<CustomMem>> consumer) throws IOException {
+        JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+        if (token == null) {
+            return 0;
+        }
+        expect(parser, token, JsonToken.START_OBJECT);
+        int amount = 0;
+        //Loop through our category names:
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            final String categoryName = parser.getCurrentName();
+            if (!categories.test(categoryName)) {
+                parser.nextToken();
+                parser.skipChildren();
+                continue;
+            }
+            LOG.debug("Records for category: {}", categoryName);
+            final Schema schema = this.schemas.computeIfAbsent(categoryName, Schema::new);
+            token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {  //single record
+                consumer.accept(readRecord(parser, schema));
+                amount++;
+            } else {
+                expect(parser, token, JsonToken.START_ARRAY);
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    consumer.accept(readRecord(parser, schema));
+                    amount++;
+                }
+                expect(parser, token, JsonToken.END_ARRAY);
+            }
+        }
+        expect(parser, token, JsonToken.END_OBJECT);
+        LOG.debug("Loaded {} json records", amount);
+        return amount;
+    }
+
+    /**
+     * Creates a lazy loader (see {@link ShamPug#putLoader}) which reads the records of one category from a json file.
+     * @param category name of the category to be loaded - all other categories of the file are skipped
+     * @param file json file
+     */
+    public Supplier<Category> categoryFromFile(String category, Path file) {
+        Objects.requireNonNull(file, "Json file may not be null!");
+        return () -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                return readCategory(category, in);
+            } catch (IOException e) {
+                throw new ShamPugException("Cannot load the '" + category + "' records from " + file + "!", e);
+            }
+        };
+    }
+
+    /**
+     * Creates a lazy loader (see {@link ShamPug#putLoader}) which reads the records of one category from a classpath resource.
+     * @param category name of the category to be loaded - all other categories of the resource are skipped
+     * @param resource json resource (eg. '/fixtures/pugs.json')
+     */
+    public Supplier<Category> categoryFromResource(String category, String resource) {
+        Objects.requireNonNull(resource, "Json resource may not be null!");
+        return () -> {
+            try (InputStream in = CustomJsonLoader.class.getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new ShamPugException("Json resource '" + resource + "' not found!");
+                }
+                return readCategory(category, in);
+            } catch (IOException e) {
+                throw new ShamPugException("Cannot load the '" + category + "' records from " + resource + "!", e);
+            }
+        };
+    }
+
+    private Category readCategory(String name, InputStream in) throws IOException {
+        final Category category = new Category(name);
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            load(parser, name::equals, category::add);
+        }
+        return category;
+    }
+
+    /**
+     * Reads the fields of one record - the parser has to point to its START_OBJECT token.
+     */
+    private CustomMem readRecord(JsonParser parser, Schema schema) throws IOException {
+        final CustomMem record = new CustomMem(schema, this.shamPug.getRandomUnit());
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            token = parser.nextToken();
+            LOG.trace("Key='{}' Value='{}' ({})", field, parser.getText(), token);
+            switch (token) {
+                case VALUE_NUMBER_INT:
+                    switch (parser.getNumberType()) {
+                        case INT:
+                            record.setInt(field, parser.getIntValue());
+                            break;
+                        case LONG:
+                            record.setLong(field, parser.getLongValue());
+                            break;
+                        default:
+                            record.add(field, parser.getBigIntegerValue());
+                    }
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    record.setDouble(field, parser.getDoubleValue());
+                    break;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    record.setBoolean(field, parser.getBooleanValue());
+                    break;
+                case VALUE_STRING:
+                    record.add(field, parser.getText());
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    parser.skipChildren();  //nested structures are not supported
+                    record.add(field, "");
+                    break;
+                default:
+                    record.add(field, parser.getText());
+            }
+        }
+        expect(parser, token, JsonToken.END_OBJECT);
+        LOG.trace("Creating Record {} ", record);
+        return record;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual + "!");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.tcmj.shampug.modules.custom.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.tcmj.shampug.pub.Record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * <h2>Streaming json writer for data records</h2>
+ * Writes any amount of records in the format read by {@link CustomJsonLoader}:
+ * <pre>
+ * {"pugs": [{"name": "Baby", "weight": 6.5, "leader": false}, ...], "countries": [...]}
+ * </pre>
+ * Records are written one by one straight through a {@link JsonGenerator} and flushed every
+ * {@value #FLUSH_INTERVAL} records, so memory doesn't grow with the output size.
+ * Consecutive records of the same category go into one array - if a category appears again later on
+ * it is written once more under the same name (the loader simply appends them).
+ * <pre>
+ * try (CustomJsonWriter writer = new CustomJsonWriter(Files.newOutputStream(path))) {
+ *     writer.write(shamPug.stream("pugs", 10_000_000));
+ * }
+ * </pre>
+ */
+public class CustomJsonWriter implements Closeable {
+
+    /** amount of records after which the generator gets flushed. */
+    public static final int FLUSH_INTERVAL = 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+    private String category;
+    private boolean started;
+    private boolean finished;
+    private long written;
+
+    /**
+     * @param out receives utf-8 encoded json - will be closed by {@link #close()}
+     */
+    public CustomJsonWriter(OutputStream out) throws IOException {
+        this(JSON_FACTORY.createGenerator(Objects.requireNonNull(out, "OutputStream may not be null!"), JsonEncoding.UTF8));
+    }
+
+    public CustomJsonWriter(JsonGenerator generator) {
+        this.generator = Objects.requireNonNull(generator, "JsonGenerator may not be null!");
+    }
+
+    /**
+     * Writes a single record.
+     * @return this writer
+     */
+    public CustomJsonWriter write(Record<?> record) throws IOException {
+        if (this.finished) {
+            throw new IllegalStateException("CustomJsonWriter has already been finished!");
+        }
+        if (!this.started) {
+            this.generator.writeStartObject();
+            this.started = true;
+        }
+        if (!record.key().equals(this.category)) {
+            if (this.category != null) {
+                this.generator.writeEndArray();
+            }
+            this.category = record.key();
+            this.generator.writeArrayFieldStart(this.category);
+        }
+        this.generator.writeStartObject();
+        for (String field : record.getTokens()) {
+            writeField(field, record.get(field));
+        }
+        this.generator.writeEndObject();
+        if (++this.written % FLUSH_INTERVAL == 0) {
+            this.generator.flush();
+        }
+        return this;
+    }
+
+    /**
+     * Writes all records of the iterator.
+     * @return amount of records written
+     */
+    public long write(Iterator<? extends Record<?>> records) throws IOException {
+        long amount = 0;
+        while (records.hasNext()) {
+            write(records.next());
+            amount++;
+        }
+        return amount;
+    }
+
+    /**
+     * Writes all records of the stream (in encounter order).
+     * @return amount of records written
+     */
+    public long write(Stream<? extends Record<?>> records) throws IOException {
+        return write(records.iterator());
+    }
+
+    private void writeField(String field, Comparable<?> value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            this.generator.writeNumberField(field, ((Number) value).intValue());
+        } else if (value instanceof Long) {
+            this.generator.writeNumberField(field, (Long) value);
+        } else if (value instanceof Double) {
+            this.generator.writeNumberField(field, (Double) value);
+        } else if (value instanceof Float) {
+            this.generator.writeNumberField(field, (Float) value);
+        } else if (value instanceof BigInteger) {
+            this.generator.writeFieldName(field);
+            this.generator.writeNumber((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            this.generator.writeNumberField(field, (BigDecimal) value);
+        } else if (value instanceof Boolean) {
+            this.generator.writeBooleanField(field, (Boolean) value);
+        } else {
+            this.generator.writeStringField(field, String.valueOf(value));
+        }
+    }
+
+    /**
+     * @return amount of records written so far
+     */
+    public long getWritten() {
+        return this.written;
+    }
+
+    /**
+     * Closes all open json structures and flushes the generator without closing it.
+     * An empty json object gets written if there haven't been any records.
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+        if (!this.started) {
+            this.generator.writeStartObject();
+        } else if (this.category != null) {
+            this.generator.writeEndArray();
+        }
+        this.generator.writeEndObject();
+        this.generator.flush();
+        this.finished = true;
+    }
+
+    /**
+     * Finishes the json document and closes the generator (and its output).
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            this.generator.close();
+        }
+    }
+}
@@ -9,6 +9,11 @@ import com.tcmj.shampug.pub.Record;
 import java.io.IOException;
 import java.util.List;
 
+/**
+ * <h2>Jackson Json Custom Serializer for Lists of data records</h2>
+ * Writes the records grouped by their category names using a {@link CustomJsonWriter}.
+ * To write huge amounts of records use the {@link CustomJsonWriter} directly with a stream.
+ */
 public class CustomRecordListSerializer extends StdSerializer<List<Record<CustomMem>>> {
 
     public CustomRecordListSerializer() {
@@ -21,40 +26,9 @@ public class CustomRecordListSerializer extends StdSerializer<List<Record<Custom
 
     @Override
     public void serialize(List<Record<CustomMem>> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
-
-        gen.writeStartObject();    // {
-
-
-        gen.writeFieldName("catty"); // todo from constructor
-        gen.writeStartArray();   // [
-
-        for (Record<CustomMem> customMemRecord : value) {
-
-            gen.writeStartObject();  // {
-
-            for (String token : customMemRecord.getTokens()) {  //todo total falsch nur um compilable zu bekommen
-
-                Comparable comparable = customMemRecord.get(token);   //all single key:value pairs
-
-
-                if (comparable instanceof Boolean) {
-                    gen.writeBooleanField(token, (boolean) comparable);
-                } else if (comparable instanceof Character) {
-                    gen.writeStringField(token, String.valueOf(comparable));
-                } else if (comparable instanceof Double) {
-                    gen.writeNumberField(token, (Double) comparable);
-                } else {
-                    gen.writeStringField(token, String.valueOf(comparable));
-
-                }
-
-            }
-            gen.writeEndObject();   // }
-        }
-
-        gen.writeEndArray();        // ]
-        gen.writeEndObject();    // }
-
+        final CustomJsonWriter writer = new CustomJsonWriter(gen);
+        writer.write(value.iterator());
+        writer.finish();
     }
 
 }
@@ -0,0 +1,437 @@
+package com.tcmj.shampug.modules.custom.mem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One typed field of a {@link ColumnarCategory}: all values of that field for all rows stored in a single array.
+ * <p>
+ * The column type is chosen by the first value. If a later value doesn't fit anymore the whole column gets
+ * converted into an {@link ObjectColumn}. Missing (null) values are tracked in a separate bitmap.
+ * </p>
+ */
+abstract class Column {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String name;
+    private long[] present = new long[1];
+    protected int capacity;
+
+    Column(String name, int capacity) {
+        this.name = name;
+        this.capacity = Math.max(capacity, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates the best fitting column for the given (first) value.
+     */
+    static Column of(String name, Comparable<?> value, int capacity) {
+        if (value instanceof Integer) {
+            return new IntColumn(name, capacity);
+        } else if (value instanceof Long) {
+            return new LongColumn(name, capacity);
+        } else if (value instanceof Double) {
+            return new DoubleColumn(name, capacity);
+        } else if (value instanceof Boolean) {
+            return new BooleanColumn(name, capacity);
+        } else if (value instanceof Character) {
+            return new CharColumn(name, capacity);
+        } else if (value instanceof String) {
+            return new StringColumn(name, capacity);
+        }
+        return new ObjectColumn(name, capacity);
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    boolean isPresent(int row) {
+        final int word = row >>> 6;
+        return word < this.present.length && (this.present[word] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return the value of the row or null if the row doesn't have a value for this field
+     */
+    Comparable<?> get(int row) {
+        return isPresent(row) ? value(row) : null;
+    }
+
+    /**
+     * Stores the value at the given row.
+     * @return false if the value type doesn't fit into this column
+     */
+    boolean set(int row, Comparable<?> value) {
+        if (!accepts(value)) {
+            return false;
+        }
+        prepare(row);
+        store(row, value);
+        return true;
+    }
+
+    /**
+     * Stores an int without boxing if this column holds ints.
+     * @return false if the value type doesn't fit into this column
+     */
+    boolean setInt(int row, int value) {
+        return set(row, value);
+    }
+
+    boolean setLong(int row, long value) {
+        return set(row, value);
+    }
+
+    boolean setDouble(int row, double value) {
+        return set(row, value);
+    }
+
+    boolean setBoolean(int row, boolean value) {
+        return set(row, value);
+    }
+
+    /**
+     * Makes sure the row fits into the arrays and marks it as present.
+     */
+    void prepare(int row) {
+        if (row >= this.capacity) {
+            int newCapacity = this.capacity;
+            while (row >= newCapacity) {
+                newCapacity <<= 1;
+            }
+            grow(newCapacity);
+            this.capacity = newCapacity;
+        }
+        final int word = row >>> 6;
+        if (word >= this.present.length) {
+            this.present = Arrays.copyOf(this.present, Math.max(word + 1, this.present.length << 1));
+        }
+        this.present[word] |= 1L << row;
+    }
+
+    /**
+     * Shrinks all arrays to the final amount of rows.
+     */
+    void trim(int size) {
+        this.present = Arrays.copyOf(this.present, (size + 63) >>> 6);
+        this.capacity = Math.max(size, 1);
+        grow(this.capacity);
+    }
+
+    /**
+     * Converts this column into a generic one (used if a value of another type appears).
+     */
+    ObjectColumn toObjectColumn(int size) {
+        final ObjectColumn column = new ObjectColumn(this.name, this.capacity);
+        for (int row = 0; row < size; row++) {
+            if (isPresent(row)) {
+                column.set(row, value(row));
+            }
+        }
+        return column;
+    }
+
+    abstract boolean accepts(Comparable<?> value);
+
+    abstract Comparable<?> value(int row);
+
+    abstract void store(int row, Comparable<?> value);
+
+    abstract void grow(int newCapacity);
+
+    static final class IntColumn extends Column {
+        private int[] values;
+
+        IntColumn(String name, int capacity) {
+            super(name, capacity);
+            this.values = new int[this.capacity];
+        }
+
+        @Override
+        boolean accepts(Comparable<?> value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        Comparable<?> value(int row) {
+            return this.values[row];
+        }
+
+        int intValue(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void store(int row, Comparable<?> value) {
+            this.values[row] = (Integer) value;
+        }
+
+        @Override
+        boolean setInt(int row, int value) {
+            prepare(row);
+            this.values[row] = value;
+            return true;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+    }
+
+    static final class LongColumn extends Column {
+        private long[] values;
+
+        LongColumn(String name, int capacity) {
+            super(name, capacity);
+            this.values = new long[this.capacity];
+        }
+
+        @Override
+        boolean accepts(Comparable<?> value) {
+            return value instanceof Long;
+        }
+
+        @Override
+        Comparable<?> value(int row) {
+            return this.values[row];
+        }
+
+        long longValue(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void store(int row, Comparable<?> value) {
+            this.values[row] = (Long) value;
+        }
+
+        @Override
+        boolean setLong(int row, long value) {
+            prepare(row);
+            this.values[row] = value;
+            return true;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+    }
+
+    static final class DoubleColumn extends Column {
+        private double[] values;
+
+        DoubleColumn(String name, int capacity) {
+            super(name, capacity);
+            this.values = new double[this.capacity];
+        }
+
+        @Override
+        boolean accepts(Comparable<?> value) {
+            return value instanceof Double;
+        }
+
+        @Override
+        Comparable<?> value(int row) {
+            return this.values[row];
+        }
+
+        double doubleValue(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void store(int row, Comparable<?> value) {
+            this.values[row] = (Double) value;
+        }
+
+        @Override
+        boolean setDouble(int row, double value) {
+            prepare(row);
+            this.values[row] = value;
+            return true;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+    }
+
+    static final class CharColumn extends Column {
+        private char[] values;
+
+        CharColumn(String name, int capacity) {
+            super(name, capacity);
+            this.values = new char[this.capacity];
+        }
+
+        @Override
+        boolean accepts(Comparable<?> value) {
+            return value instanceof Character;
+        }
+
+        @Override
+        Comparable<?> value(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void store(int row, Comparable<?> value) {
+            this.values[row] = (Character) value;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+    }
+
+    /**
+     * Booleans packed into a bitset - 64 rows per long.
+     */
+    static final class BooleanColumn extends Column {
+        private long[] bits;
+
+        BooleanColumn(String name, int capacity) {
+            super(name, capacity);
+            this.bits = new long[(this.capacity + 63) >>> 6];
+        }
+
+        @Override
+        boolean accepts(Comparable<?> value) {
+            return value instanceof Boolean;
+        }
+
+        @Override
+        Comparable<?> value(int row) {
+            return (this.bits[row >>> 6] & (1L << row)) != 0;
+        }
+
+        boolean booleanValue(int row) {
+            return (this.bits[row >>> 6] & (1L << row)) != 0;
+        }
+
+        @Override
+        void store(int row, Comparable<?> value) {
+            if ((Boolean) value) {
+                this.bits[row >>> 6] |= 1L << row;
+            } else {
+                this.bits[row >>> 6] &= ~(1L << row);
+            }
+        }
+
+        @Override
+        boolean setBoolean(int row, boolean value) {
+            prepare(row);
+            if (value) {
+                this.bits[row >>> 6] |= 1L << row;
+            } else {
+                this.bits[row >>> 6] &= ~(1L << row);
+            }
+            return true;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.bits = Arrays.copyOf(this.bits, (newCapacity + 63) >>> 6);
+        }
+    }
+
+    /**
+     * Dictionary encoded strings: every distinct string is kept once, the rows only store its code.
+     */
+    static final class StringColumn extends Column {
+        private final List<String> dictionary = new ArrayList<>();
+        private Map<String, Integer> codes = new HashMap<>();
+        private String[] lookup;
+        private int[] values;
+
+        StringColumn(String name, int capacity) {
+            super(name, capacity);
+            this.values = new int[this.capacity];
+        }
+
+        @Override
+        boolean accepts(Comparable<?> value) {
+            return value instanceof String;
+        }
+
+        @Override
+        Comparable<?> value(int row) {
+            final int code = this.values[row];
+            return this.lookup != null ? this.lookup[code] : this.dictionary.get(code);
+        }
+
+        @Override
+        void store(int row, Comparable<?> value) {
+            if (this.codes == null) {
+                throw new IllegalStateException("Column '" + getName() + "' has already been built!");
+            }
+            Integer code = this.codes.get(value);
+            if (code == null) {
+                code = this.dictionary.size();
+                this.dictionary.add((String) value);
+                this.codes.put((String) value, code);
+            }
+            this.values[row] = code;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+
+        @Override
+        void trim(int size) {
+            super.trim(size);
+            this.lookup = this.dictionary.toArray(new String[0]);
+            this.codes = null; // only needed while building
+        }
+
+        /**
+         * @return amount of distinct strings of this column
+         */
+        int distinct() {
+            return this.dictionary.size();
+        }
+    }
+
+    /**
+     * Fallback for all other (or mixed) value types.
+     */
+    static final class ObjectColumn extends Column {
+        private Comparable<?>[] values;
+
+        ObjectColumn(String name, int capacity) {
+            super(name, capacity);
+            this.values = new Comparable<?>[this.capacity];
+        }
+
+        @Override
+        boolean accepts(Comparable<?> value) {
+            return true;
+        }
+
+        @Override
+        Comparable<?> value(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void store(int row, Comparable<?> value) {
+            this.values[row] = value;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.tcmj.shampug.modules.custom.mem;
+
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.pub.FieldKey;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+import com.tcmj.shampug.pub.Schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read-only category for large in-memory data sets which stores its records column by column.
+ * <p>
+ * Instead of one {@link CustomMem} (and one HashMap) per record all values of a field live in one typed
+ * array (int[], long[], double[], char[], a bitset for booleans and dictionary encoded strings). The field
+ * names are shared by all rows. Records are handed out as lightweight {@link ColumnarRecord} views.
+ * </p>
+ * <pre>
+ *     ColumnarCategory countries = ColumnarCategory.builder("countries", shamPug.getRandomUnit())
+ *         .row().set("name", "Austria").set("population", 9_006_398)
+ *         .row().set("name", "Cuba").set("population", 11_326_616)
+ *         .build();
+ *     shamPug.put(countries);
+ *     Record&lt;ColumnarRecord&gt; country = shamPug.get("countries");
+ * </pre>
+ */
+public class ColumnarCategory extends Category {
+
+    private final RandomUnit randomUnit;
+    private final Column[] columns;
+    private final Schema schema;
+    private final Set<String> fieldNames;
+    private final int rows;
+
+    private ColumnarCategory(Builder builder) {
+        super(builder.schema.getCategory());
+        this.randomUnit = builder.randomUnit;
+        this.columns = builder.columns.toArray(new Column[0]);
+        this.schema = builder.schema;
+        this.fieldNames = Collections.unmodifiableSet(new LinkedHashSet<>(this.schema.getFieldNames()));
+        this.rows = builder.rows;
+        for (Column column : this.columns) {
+            column.trim(this.rows);
+        }
+    }
+
+    public static Builder builder(String name, RandomUnit randomUnit) {
+        return new Builder(name, randomUnit);
+    }
+
+    @Override
+    public Record<? extends Comparable> get(int index) {
+        if (index < 0 || index >= this.rows) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.rows);
+        }
+        return new ColumnarRecord(this, index);
+    }
+
+    @Override
+    public int size() {
+        return this.rows;
+    }
+
+    @Override
+    public boolean add(Record<? extends Comparable> record) {
+        throw new ShamPugException("Columnar category '" + getName() + "' is read-only!");
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof ColumnarRecord && ((ColumnarRecord) o).category == this;
+    }
+
+    @Override
+    public Iterator<Record<? extends Comparable>> iterator() {
+        return new Iterator<Record<? extends Comparable>>() {
+            private int cursor;
+
+            @Override
+            public boolean hasNext() {
+                return this.cursor < ColumnarCategory.this.rows;
+            }
+
+            @Override
+            public Record<? extends Comparable> next() {
+                if (this.cursor >= ColumnarCategory.this.rows) {
+                    throw new NoSuchElementException();
+                }
+                return new ColumnarRecord(ColumnarCategory.this, this.cursor++);
+            }
+        };
+    }
+
+    RandomUnit getRandomUnit() {
+        return this.randomUnit;
+    }
+
+    /**
+     * @return all field names in order of their first appearance
+     */
+    public Set<String> getFieldNames() {
+        return this.fieldNames;
+    }
+
+    /**
+     * The schema shared by all rows - the slot of a field is also the index of its column.
+     * Use it to resolve {@link com.tcmj.shampug.pub.FieldKey}s for fast access.
+     * @return the schema of this category
+     */
+    public Schema getSchema() {
+        return this.schema;
+    }
+
+    Comparable<?> value(int row, String field) {
+        return value(row, this.schema.slotOf(field));
+    }
+
+    Comparable<?> value(int row, int slot) {
+        return slot >= 0 && slot < this.columns.length ? this.columns[slot].get(row) : null;
+    }
+
+    /**
+     * @return the column of the slot or null if there is no such column
+     */
+    Column column(int slot) {
+        return slot >= 0 && slot < this.columns.length ? this.columns[slot] : null;
+    }
+
+    /**
+     * @return amount of distinct strings stored for the field or -1 if it isn't a (dictionary encoded) string field
+     */
+    public int distinctStrings(String field) {
+        final int slot = this.schema.slotOf(field);
+        if (slot >= 0 && slot < this.columns.length && this.columns[slot] instanceof Column.StringColumn) {
+            return ((Column.StringColumn) this.columns[slot]).distinct();
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the rows of a ColumnarCategory. Use {@link #row()} to begin a new row and {@link #set(String, Comparable)}
+     * to fill its values.
+     */
+    public static class Builder {
+        private final Schema schema;
+        private final RandomUnit randomUnit;
+        private final List<Column> columns = new ArrayList<>();
+        private int rows;
+        private boolean built;
+
+        private Builder(String name, RandomUnit randomUnit) {
+            this.schema = new Schema(Objects.requireNonNull(name, "Category name may not be null!"));
+            this.randomUnit = Objects.requireNonNull(randomUnit, "Please pass a non null instance of RandomUnit!");
+        }
+
+        /**
+         * Begins a new row. All following {@link #set} calls go into this row.
+         */
+        public Builder row() {
+            checkNotBuilt();
+            this.rows++;
+            return this;
+        }
+
+        /**
+         * Sets a value of the current row. Null values are ignored (the field remains unset for this row).
+         */
+        public Builder set(String field, Comparable<?> value) {
+            return set(this.schema.field(field), value);
+        }
+
+        /**
+         * Sets a value of the current row using a handle resolved by {@link #getSchema()}.
+         * Null values are ignored (the field remains unset for this row).
+         */
+        public Builder set(FieldKey<?> key, Comparable<?> value) {
+            final int row = currentRow();
+            if (value == null) {
+                return this;
+            }
+            final int slot = slotOf(key);
+            Column column = this.columns.get(slot);
+            if (column == null) {
+                column = create(slot, Column.of(key.getName(), value, this.rows));
+            }
+            if (!column.set(row, value)) {
+                fallback(slot, row, value);
+            }
+            return this;
+        }
+
+        /**
+         * Sets an int value of the current row without boxing it.
+         */
+        public Builder setInt(FieldKey<Integer> key, int value) {
+            final int row = currentRow();
+            final int slot = slotOf(key);
+            Column column = this.columns.get(slot);
+            if (column == null) {
+                column = create(slot, new Column.IntColumn(key.getName(), this.rows));
+            }
+            if (!column.setInt(row, value)) {
+                fallback(slot, row, value);
+            }
+            return this;
+        }
+
+        /**
+         * Sets a long value of the current row without boxing it.
+         */
+        public Builder setLong(FieldKey<Long> key, long value) {
+            final int row = currentRow();
+            final int slot = slotOf(key);
+            Column column = this.columns.get(slot);
+            if (column == null) {
+                column = create(slot, new Column.LongColumn(key.getName(), this.rows));
+            }
+            if (!column.setLong(row, value)) {
+                fallback(slot, row, value);
+            }
+            return this;
+        }
+
+        /**
+         * Sets a double value of the current row without boxing it.
+         */
+        public Builder setDouble(FieldKey<Double> key, double value) {
+            final int row = currentRow();
+            final int slot = slotOf(key);
+            Column column = this.columns.get(slot);
+            if (column == null) {
+                column = create(slot, new Column.DoubleColumn(key.getName(), this.rows));
+            }
+            if (!column.setDouble(row, value)) {
+                fallback(slot, row, value);
+            }
+            return this;
+        }
+
+        /**
+         * Sets a boolean value of the current row without boxing it.
+         */
+        public Builder setBoolean(FieldKey<Boolean> key, boolean value) {
+            final int row = currentRow();
+            final int slot = slotOf(key);
+            Column column = this.columns.get(slot);
+            if (column == null) {
+                column = create(slot, new Column.BooleanColumn(key.getName(), this.rows));
+            }
+            if (!column.setBoolean(row, value)) {
+                fallback(slot, row, value);
+            }
+            return this;
+        }
+
+        /**
+         * The schema of the category being built - use it to resolve {@link FieldKey}s for the fast setters.
+         */
+        public Schema getSchema() {
+            return this.schema;
+        }
+
+        private int currentRow() {
+            checkNotBuilt();
+            if (this.rows == 0) {
+                throw new IllegalStateException("Please call #row before setting any values!");
+            }
+            return this.rows - 1;
+        }
+
+        /**
+         * @return the column index of the key - fields may have been resolved before their first value
+         */
+        private int slotOf(FieldKey<?> key) {
+            final int slot = key.getSchema() == this.schema ? key.getSlot() : this.schema.field(key.getName()).getSlot();
+            while (this.columns.size() <= slot) {
+                this.columns.add(null);
+            }
+            return slot;
+        }
+
+        private Column create(int slot, Column column) {
+            this.columns.set(slot, column);
+            return column;
+        }
+
+        /**
+         * The value doesn't fit the column type anymore - converts the column into a generic one.
+         */
+        private void fallback(int slot, int row, Comparable<?> value) {
+            final Column column = this.columns.get(slot).toObjectColumn(row);
+            column.set(row, value);
+            this.columns.set(slot, column);
+        }
+
+        /**
+         * Copies all fields of the given record into a new row.
+         */
+        public Builder add(Record<?> record) {
+            row();
+            for (String token : record.getTokens()) {
+                set(token, record.get(token));
+            }
+            return this;
+        }
+
+        public int size() {
+            return this.rows;
+        }
+
+        public ColumnarCategory build() {
+            checkNotBuilt();
+            this.built = true;
+            while (this.columns.size() < this.schema.size()) {
+                this.columns.add(null);
+            }
+            for (int slot = 0; slot < this.columns.size(); slot++) {
+                if (this.columns.get(slot) == null) {  // resolved but never set
+                    this.columns.set(slot, new Column.ObjectColumn(this.schema.getFieldNames().get(slot), this.rows));
+                }
+            }
+            return new ColumnarCategory(this);
+        }
+
+        private void checkNotBuilt() {
+            if (this.built) {
+                throw new IllegalStateException("ColumnarCategory '" + this.schema.getCategory() + "' has already been built!");
+            }
+        }
+    }
+}
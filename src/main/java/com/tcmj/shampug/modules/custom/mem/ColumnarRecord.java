@@ -0,0 +1,192 @@
+package com.tcmj.shampug.modules.custom.mem;
+
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.pub.FieldKey;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lightweight read-only view on one row of a {@link ColumnarCategory}.
+ * It only consists of a reference to its category and the row number - all values are read from the columns.
+ */
+public final class ColumnarRecord implements Record<ColumnarRecord>, Comparable<ColumnarRecord> {
+
+    final ColumnarCategory category;
+    private final int row;
+
+    ColumnarRecord(ColumnarCategory category, int row) {
+        this.category = category;
+        this.row = row;
+    }
+
+    /**
+     * @return the position of this record within its category
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    @Override
+    public <V extends Comparable> V get(String name) {
+        return (V) this.category.value(this.row, name);
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> void set(String field, V value) {
+        throw new ShamPugException("Records of the columnar category '" + key() + "' are read-only!");
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> V get(FieldKey<V> key) {
+        if (key.getSchema() != this.category.getSchema()) {
+            return get(key.getName());
+        }
+        return (V) this.category.value(this.row, key.getSlot());
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> void set(FieldKey<V> key, V value) {
+        set(key.getName(), value);
+    }
+
+    @Override
+    public int getInt(String name) {
+        return getInt(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public int getInt(FieldKey<Integer> key) {
+        return getInt(slotOf(key), key.getName());
+    }
+
+    private int getInt(int slot, String name) {
+        final Column column = this.category.column(slot);
+        if (column instanceof Column.IntColumn && column.isPresent(this.row)) {
+            return ((Column.IntColumn) column).intValue(this.row);
+        }
+        return Record.super.getInt(name);
+    }
+
+    @Override
+    public long getLong(String name) {
+        return getLong(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public long getLong(FieldKey<Long> key) {
+        return getLong(slotOf(key), key.getName());
+    }
+
+    private long getLong(int slot, String name) {
+        final Column column = this.category.column(slot);
+        if (column instanceof Column.LongColumn && column.isPresent(this.row)) {
+            return ((Column.LongColumn) column).longValue(this.row);
+        }
+        return Record.super.getLong(name);
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return getDouble(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public double getDouble(FieldKey<Double> key) {
+        return getDouble(slotOf(key), key.getName());
+    }
+
+    private double getDouble(int slot, String name) {
+        final Column column = this.category.column(slot);
+        if (column instanceof Column.DoubleColumn && column.isPresent(this.row)) {
+            return ((Column.DoubleColumn) column).doubleValue(this.row);
+        }
+        return Record.super.getDouble(name);
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return getBoolean(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public boolean getBoolean(FieldKey<Boolean> key) {
+        return getBoolean(slotOf(key), key.getName());
+    }
+
+    private boolean getBoolean(int slot, String name) {
+        final Column column = this.category.column(slot);
+        if (column instanceof Column.BooleanColumn && column.isPresent(this.row)) {
+            return ((Column.BooleanColumn) column).booleanValue(this.row);
+        }
+        return Record.super.getBoolean(name);
+    }
+
+    private int slotOf(FieldKey<?> key) {
+        return key.getSchema() == this.category.getSchema() ? key.getSlot() : this.category.getSchema().slotOf(key.getName());
+    }
+
+    @Override
+    public String key() {
+        return this.category.getName();
+    }
+
+    /**
+     * @return names of all fields having a value in this row
+     */
+    @Override
+    public Set<String> getTokens() {
+        final List<String> names = this.category.getSchema().getFieldNames();
+        final Set<String> present = new LinkedHashSet<>();
+        for (int slot = 0; slot < names.size(); slot++) {
+            final Column column = this.category.column(slot);
+            if (column != null && column.isPresent(this.row)) {
+                present.add(names.get(slot));
+            }
+        }
+        return present;
+    }
+
+    @Override
+    public RandomUnit getRandomUnit() {
+        return this.category.getRandomUnit();
+    }
+
+    @Override
+    public int compareTo(ColumnarRecord o) {
+        return Integer.compare(this.row, o.row);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (!(obj instanceof ColumnarRecord)) {
+            return false;
+        }
+        final ColumnarRecord other = (ColumnarRecord) obj;
+        return this.category == other.category && this.row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this.category) * 31 + this.row;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(key()).append('#').append(this.row).append('{');
+        String separator = "";
+        for (String field : getTokens()) {
+            final Comparable<?> value = this.category.value(this.row, field);
+            if (value != null) {
+                builder.append(separator).append(field).append('=').append(value);
+                separator = ", ";
+            }
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -1,8 +1,10 @@
 package com.tcmj.shampug.modules.custom.mem;
 
 import com.tcmj.shampug.modules.custom.AbstractRecord;
+import com.tcmj.shampug.pub.FieldKey;
 import com.tcmj.shampug.pub.RandomUnit;
 import com.tcmj.shampug.pub.Randoms;
+import com.tcmj.shampug.pub.Schema;
 
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -22,21 +24,34 @@ public class CustomMem extends AbstractRecord<CustomMem> {
         super(pugs, new Randoms());
     }
 
+    /**
+     * Creates a record bound to the given schema (the category name is taken from the schema).
+     * All values are stored in a compact array using the slots of the schema.
+     */
+    public CustomMem(Schema schema, RandomUnit randomUnit) {
+        super(schema, randomUnit);
+    }
+
     public <V extends Comparable<? super V>> CustomMem add(String field, V value) {
         super.set(field, value);
         return this;
     }
 
+    public <V extends Comparable<? super V>> CustomMem add(FieldKey<V> field, V value) {
+        super.set(field, value);
+        return this;
+    }
+
     @Override
     public int compareTo(CustomMem o) {
-        final String a = this.fields.values().stream().map(String::valueOf).collect(Collectors.joining());
-        final String b = o.fields.values().stream().map(String::valueOf).collect(Collectors.joining());
+        final String a = this.values().stream().map(String::valueOf).collect(Collectors.joining());
+        final String b = o.values().stream().map(String::valueOf).collect(Collectors.joining());
         return a.compareTo(b);
     }
 
     @Override
     public Set<String> getTokens() {
-        return this.fields.keySet();
+        return fieldNames();
     }
 
 
@@ -0,0 +1,165 @@
+package com.tcmj.shampug.modules.custom.snapshot;
+
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+import com.tcmj.shampug.pub.Schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only category backed by a memory-mapped {@link RegistrySnapshot}.
+ * <p>
+ * Records are handed out as lightweight {@link MappedRecord} views; their values are decoded from the mapped
+ * file only when they are accessed. Decoded strings are cached, so each distinct string is decoded once.
+ * </p>
+ */
+public class MappedCategory extends Category {
+
+    private final Schema schema;
+    private final RandomUnit randomUnit;
+    private final ByteBuffer buffer;
+    private final int records;
+    private final int recordsStart;
+    private final int stringOffsets;
+    private final int stringData;
+    private final String[] strings;
+
+    MappedCategory(String name, String[] fields, RandomUnit randomUnit, ByteBuffer buffer, int records,
+                   int recordsStart, int stringCount, int stringOffsets, int stringData) {
+        super(name);
+        this.schema = new Schema(name);
+        for (String field : fields) {
+            this.schema.field(field);
+        }
+        this.randomUnit = randomUnit;
+        this.buffer = buffer;
+        this.records = records;
+        this.recordsStart = recordsStart;
+        this.stringOffsets = stringOffsets;
+        this.stringData = stringData;
+        this.strings = new String[stringCount];
+    }
+
+    @Override
+    public Record<? extends Comparable> get(int index) {
+        if (index < 0 || index >= this.records) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.records);
+        }
+        return new MappedRecord(this, index);
+    }
+
+    @Override
+    public int size() {
+        return this.records;
+    }
+
+    @Override
+    public boolean add(Record<? extends Comparable> record) {
+        throw new ShamPugException("Mapped category '" + getName() + "' is read-only!");
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof MappedRecord && ((MappedRecord) o).category == this;
+    }
+
+    @Override
+    public Iterator<Record<? extends Comparable>> iterator() {
+        return new Iterator<Record<? extends Comparable>>() {
+            private int cursor;
+
+            @Override
+            public boolean hasNext() {
+                return this.cursor < MappedCategory.this.records;
+            }
+
+            @Override
+            public Record<? extends Comparable> next() {
+                if (this.cursor >= MappedCategory.this.records) {
+                    throw new NoSuchElementException();
+                }
+                return new MappedRecord(MappedCategory.this, this.cursor++);
+            }
+        };
+    }
+
+    /**
+     * The schema of the snapshot - the slot of a field is also its position within each stored record.
+     * @return the schema of this category
+     */
+    public Schema getSchema() {
+        return this.schema;
+    }
+
+    RandomUnit getRandomUnit() {
+        return this.randomUnit;
+    }
+
+    private int position(int row, int slot) {
+        return this.recordsStart + (row * this.schema.size() + slot) * RegistrySnapshot.SLOT_BYTES;
+    }
+
+    /**
+     * @return the value type of the field or {@link RegistrySnapshot#NULL} if the field isn't set or unknown
+     */
+    byte type(int row, int slot) {
+        if (slot < 0 || slot >= this.schema.size()) {
+            return RegistrySnapshot.NULL;
+        }
+        return this.buffer.get(position(row, slot));
+    }
+
+    /**
+     * @return the raw payload of the field (only valid if its type isn't NULL)
+     */
+    long bits(int row, int slot) {
+        return this.buffer.getLong(position(row, slot) + 1);
+    }
+
+    Comparable<?> value(int row, int slot) {
+        final byte type = type(row, slot);
+        switch (type) {
+            case RegistrySnapshot.INT:
+                return (int) bits(row, slot);
+            case RegistrySnapshot.LONG:
+                return bits(row, slot);
+            case RegistrySnapshot.DOUBLE:
+                return Double.longBitsToDouble(bits(row, slot));
+            case RegistrySnapshot.BOOLEAN:
+                return bits(row, slot) != 0L;
+            case RegistrySnapshot.CHAR:
+                return (char) bits(row, slot);
+            case RegistrySnapshot.STRING:
+                return string((int) bits(row, slot));
+            case RegistrySnapshot.BIG_INTEGER:
+                return new BigInteger(string((int) bits(row, slot)));
+            case RegistrySnapshot.BIG_DECIMAL:
+                return new BigDecimal(string((int) bits(row, slot)));
+            default:
+                return null;
+        }
+    }
+
+    private String string(int index) {
+        String text = this.strings[index];
+        if (text == null) {
+            // a racing thread may decode the same string again which is harmless
+            final int start = this.buffer.getInt(this.stringOffsets + index * Integer.BYTES);
+            final int end = this.buffer.getInt(this.stringOffsets + (index + 1) * Integer.BYTES);
+            final byte[] bytes = new byte[end - start];
+            final ByteBuffer view = this.buffer.duplicate();
+            view.position(this.stringData + start);
+            view.get(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+            this.strings[index] = text;
+        }
+        return text;
+    }
+}
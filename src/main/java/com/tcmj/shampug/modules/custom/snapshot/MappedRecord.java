@@ -0,0 +1,171 @@
+package com.tcmj.shampug.modules.custom.snapshot;
+
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.pub.FieldKey;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lightweight read-only view on one record of a {@link MappedCategory}.
+ * It only consists of a reference to its category and the row number - all values are decoded from the snapshot.
+ */
+public final class MappedRecord implements Record<MappedRecord>, Comparable<MappedRecord> {
+
+    final MappedCategory category;
+    private final int row;
+
+    MappedRecord(MappedCategory category, int row) {
+        this.category = category;
+        this.row = row;
+    }
+
+    /**
+     * @return the position of this record within its category
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    @Override
+    public <V extends Comparable> V get(String name) {
+        return (V) this.category.value(this.row, this.category.getSchema().slotOf(name));
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> void set(String field, V value) {
+        throw new ShamPugException("Records of the mapped category '" + key() + "' are read-only!");
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> V get(FieldKey<V> key) {
+        return (V) this.category.value(this.row, slotOf(key));
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> void set(FieldKey<V> key, V value) {
+        set(key.getName(), value);
+    }
+
+    @Override
+    public int getInt(String name) {
+        return getInt(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public int getInt(FieldKey<Integer> key) {
+        return getInt(slotOf(key), key.getName());
+    }
+
+    private int getInt(int slot, String name) {
+        return this.category.type(this.row, slot) == RegistrySnapshot.INT ? (int) this.category.bits(this.row, slot) : Record.super.getInt(name);
+    }
+
+    @Override
+    public long getLong(String name) {
+        return getLong(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public long getLong(FieldKey<Long> key) {
+        return getLong(slotOf(key), key.getName());
+    }
+
+    private long getLong(int slot, String name) {
+        final byte type = this.category.type(this.row, slot);
+        return type == RegistrySnapshot.LONG || type == RegistrySnapshot.INT ? this.category.bits(this.row, slot) : Record.super.getLong(name);
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return getDouble(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public double getDouble(FieldKey<Double> key) {
+        return getDouble(slotOf(key), key.getName());
+    }
+
+    private double getDouble(int slot, String name) {
+        return this.category.type(this.row, slot) == RegistrySnapshot.DOUBLE
+            ? Double.longBitsToDouble(this.category.bits(this.row, slot)) : Record.super.getDouble(name);
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return getBoolean(this.category.getSchema().slotOf(name), name);
+    }
+
+    @Override
+    public boolean getBoolean(FieldKey<Boolean> key) {
+        return getBoolean(slotOf(key), key.getName());
+    }
+
+    private boolean getBoolean(int slot, String name) {
+        return this.category.type(this.row, slot) == RegistrySnapshot.BOOLEAN ? this.category.bits(this.row, slot) != 0L : Record.super.getBoolean(name);
+    }
+
+    private int slotOf(FieldKey<?> key) {
+        return key.getSchema() == this.category.getSchema() ? key.getSlot() : this.category.getSchema().slotOf(key.getName());
+    }
+
+    @Override
+    public String key() {
+        return this.category.getName();
+    }
+
+    /**
+     * @return names of all fields having a value in this record
+     */
+    @Override
+    public Set<String> getTokens() {
+        final List<String> names = this.category.getSchema().getFieldNames();
+        final Set<String> present = new LinkedHashSet<>();
+        for (int slot = 0; slot < names.size(); slot++) {
+            if (this.category.type(this.row, slot) != RegistrySnapshot.NULL) {
+                present.add(names.get(slot));
+            }
+        }
+        return present;
+    }
+
+    @Override
+    public RandomUnit getRandomUnit() {
+        return this.category.getRandomUnit();
+    }
+
+    @Override
+    public int compareTo(MappedRecord o) {
+        return Integer.compare(this.row, o.row);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (!(obj instanceof MappedRecord)) {
+            return false;
+        }
+        final MappedRecord other = (MappedRecord) obj;
+        return this.category == other.category && this.row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this.category) * 31 + this.row;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(key()).append('#').append(this.row).append('{');
+        String separator = "";
+        for (String field : getTokens()) {
+            builder.append(separator).append(field).append('=').append((Object) get(field));
+            separator = ", ";
+        }
+        return builder.append('}').toString();
+    }
+}
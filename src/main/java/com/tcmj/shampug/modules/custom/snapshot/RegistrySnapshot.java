@@ -0,0 +1,224 @@
+package com.tcmj.shampug.modules.custom.snapshot;
+
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.Registry;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <h2>Binary snapshot of registry data</h2>
+ * Writes all records of some categories into one compact file which can be opened by any other JVM without
+ * parsing anything: the file gets memory-mapped and its records are decoded lazily on access. Multiple JVMs
+ * opening the same snapshot share the operating system's page cache.
+ * <pre>
+ *     // once, eg. in a build step:
+ *     new CustomJsonLoader(shamPug).load(jsonFixture);
+ *     RegistrySnapshot.write(shamPug.getRegistry(), Paths.get("target/fixtures.spug"));
+ *
+ *     // in every test JVM:
+ *     RegistrySnapshot.open(Paths.get("target/fixtures.spug"), shamPug.getRandomUnit()).forEach(shamPug::put);
+ * </pre>
+ * <h3>File layout (big endian)</h3>
+ * <pre>
+ * int magic ('SPUG'), int version, int categoryCount
+ * per category:
+ *   string name, int fieldCount, string[fieldCount] fieldNames, int recordCount
+ *   recordCount * fieldCount value slots of 9 bytes: byte type + long payload (raw bits or string index)
+ *   int stringCount, int[stringCount + 1] byte offsets, utf-8 bytes of all distinct strings
+ * string: int length + utf-8 bytes
+ * </pre>
+ * As all value slots have the same width any record and field can be located without an index.
+ */
+public final class RegistrySnapshot {
+
+    static final int MAGIC = 0x53505547;
+    static final int VERSION = 1;
+    static final int SLOT_BYTES = 9;
+
+    /* value types */
+    static final byte NULL = 0;
+    static final byte INT = 1;
+    static final byte LONG = 2;
+    static final byte DOUBLE = 3;
+    static final byte BOOLEAN = 4;
+    static final byte CHAR = 5;
+    static final byte STRING = 6;
+    static final byte BIG_INTEGER = 7;
+    static final byte BIG_DECIMAL = 8;
+
+    private RegistrySnapshot() {
+    }
+
+    /**
+     * Writes all categories of the registry (without the ones of a base registry) to the file.
+     * @param registry the registry to be exported
+     * @param file will be created or overwritten
+     */
+    public static void write(Registry registry, Path file) throws IOException {
+        write(registry.getCategories(), file);
+    }
+
+    /**
+     * Writes the given categories to the file.
+     * Supported value types are Integer, Long, Double, Boolean, Character, String, BigInteger and BigDecimal.
+     * @param categories the categories to be exported
+     * @param file will be created or overwritten
+     * @throws ShamPugException if a record contains a value of an unsupported type
+     */
+    public static void write(Collection<? extends Category> categories, Path file) throws IOException {
+        Objects.requireNonNull(categories, "Please pass some categories to be written!");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(categories.size());
+            for (Category category : categories) {
+                writeCategory(category, out);
+            }
+        }
+    }
+
+    private static void writeCategory(Category category, DataOutputStream out) throws IOException {
+        // the category may still grow while it is written, both passes have to see the same records
+        final int rows = category.size();
+        final Set<String> fieldSet = new LinkedHashSet<>();
+        for (int i = 0; i < rows; i++) {
+            fieldSet.addAll(category.get(i).getTokens());
+        }
+        final List<String> fields = new ArrayList<>(fieldSet);
+        writeString(category.getName(), out);
+        out.writeInt(fields.size());
+        for (String field : fields) {
+            writeString(field, out);
+        }
+        out.writeInt(rows);
+
+        final Map<String, Integer> stringIndex = new HashMap<>();
+        final List<byte[]> strings = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            final Record<? extends Comparable> record = category.get(i);
+            for (String field : fields) {
+                final Comparable<?> value = record.get(field);
+                if (value == null) {
+                    out.writeByte(NULL);
+                    out.writeLong(0L);
+                } else if (value instanceof Integer) {
+                    out.writeByte(INT);
+                    out.writeLong((Integer) value);
+                } else if (value instanceof Long) {
+                    out.writeByte(LONG);
+                    out.writeLong((Long) value);
+                } else if (value instanceof Double) {
+                    out.writeByte(DOUBLE);
+                    out.writeLong(Double.doubleToRawLongBits((Double) value));
+                } else if (value instanceof Boolean) {
+                    out.writeByte(BOOLEAN);
+                    out.writeLong((Boolean) value ? 1L : 0L);
+                } else if (value instanceof Character) {
+                    out.writeByte(CHAR);
+                    out.writeLong((Character) value);
+                } else if (value instanceof String || value instanceof BigInteger || value instanceof BigDecimal) {
+                    final String text = value.toString();
+                    Integer index = stringIndex.get(text);
+                    if (index == null) {
+                        index = strings.size();
+                        strings.add(text.getBytes(StandardCharsets.UTF_8));
+                        stringIndex.put(text, index);
+                    }
+                    out.writeByte(value instanceof String ? STRING : value instanceof BigInteger ? BIG_INTEGER : BIG_DECIMAL);
+                    out.writeLong(index);
+                } else {
+                    throw new ShamPugException("Cannot write '" + category.getName() + "." + field
+                        + "' values of type " + value.getClass().getName() + " into a snapshot!");
+                }
+            }
+        }
+
+        out.writeInt(strings.size());
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : strings) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : strings) {
+            out.write(bytes);
+        }
+    }
+
+    private static void writeString(String text, DataOutputStream out) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Maps the snapshot file into memory. Nothing but the category headers is read here.
+     * @param file a file created by {@link #write}
+     * @param randomUnit handed out by all records of the snapshot
+     * @return one read-only category per category stored in the snapshot
+     * @throws ShamPugException if the file is no (compatible) snapshot
+     */
+    public static List<MappedCategory> open(Path file, RandomUnit randomUnit) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ShamPugException("Snapshot '" + file + "' is too big (" + channel.size() + " bytes)!");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 12 || buffer.getInt(0) != MAGIC) {
+            throw new ShamPugException("'" + file + "' is no ShamPug snapshot!");
+        } else if (buffer.getInt(4) != VERSION) {
+            throw new ShamPugException("Unsupported snapshot version " + buffer.getInt(4) + " in '" + file + "'!");
+        }
+        final int categoryCount = buffer.getInt(8);
+        final List<MappedCategory> categories = new ArrayList<>(categoryCount);
+        final ByteBuffer header = buffer.duplicate();
+        header.position(12);
+        for (int i = 0; i < categoryCount; i++) {
+            final String name = readString(header);
+            final String[] fields = new String[header.getInt()];
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = readString(header);
+            }
+            final int records = header.getInt();
+            final int recordsStart = header.position();
+            header.position(Math.toIntExact(recordsStart + (long) records * fields.length * SLOT_BYTES));
+            final int stringCount = header.getInt();
+            final int stringOffsets = header.position();
+            final int stringData = stringOffsets + (stringCount + 1) * Integer.BYTES;
+            header.position(stringData + buffer.getInt(stringOffsets + stringCount * Integer.BYTES));
+            categories.add(new MappedCategory(name, fields, randomUnit, buffer, records, recordsStart, stringCount, stringOffsets, stringData));
+        }
+        return Collections.unmodifiableList(categories);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,141 @@
+package com.tcmj.shampug.modules.custom.yaml;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.json.CustomJsonLoader;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Record;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * <h2>Streaming loader for yaml data records</h2>
+ * Reads the same structure as the {@link CustomJsonLoader} - written as yaml - token by token:
+ * <pre>
+ * pugs:
+ *   - name: Baby
+ *     weight: 6.5
+ *     leader: false
+ *   - {name: Emmy, weight: 5.0, leader: true}
+ * ---
+ * countries:
+ *   - name: Austria
+ *     population: 9006398
+ * </pre>
+ * A file may consist of any amount of documents (separated by {@code ---}) which are read one after another,
+ * records are handed out as soon as they are complete. Empty documents are skipped.
+ * <pre>
+ * int amount = new CustomYamlLoader(shamPug).load(inputStream);     // puts all records into shamPug
+ * shamPug.putLoader("pugs", loader.categoryFromFile("pugs", path)); // loads the 'pugs' on their first access only
+ * </pre>
+ */
+public class CustomYamlLoader {
+
+    /** slf4j Logging framework. */
+    private static final Logger LOG = getLogger(CustomYamlLoader.class);
+
+    private static final YAMLFactory YAML_FACTORY = new YAMLFactory();
+
+    /** walks the tokens of each document. */
+    private final CustomJsonLoader tokenLoader;
+    private final ShamPug shamPug;
+
+    public CustomYamlLoader(ShamPug shamPug) {
+        this.shamPug = Objects.requireNonNull(shamPug, "ShamPug may not be null in CustomYamlLoader!");
+        this.tokenLoader = new CustomJsonLoader(shamPug);
+    }
+
+    /**
+     * Reads all records of all documents of the yaml stream and puts them into the ShamPug instance.
+     * @param in yaml data - will be closed afterwards
+     * @return amount of records loaded
+     */
+    public int load(InputStream in) throws IOException {
+        try (JsonParser parser = YAML_FACTORY.createParser(in)) {
+            return load(parser, category -> true, this.shamPug::put);
+        }
+    }
+
+    /**
+     * Reads the records of some categories of all remaining documents of the yaml parser.
+     * All other categories are skipped without creating any records.
+     * @param parser the yaml parser
+     * @param categories decides by the category name whether its records are read
+     * @param consumer receives every record as soon as it is complete
+     * @return amount of records read
+     */
+    public int load(JsonParser parser, Predicate<String> categories, Consumer<? super Record<CustomMem>> consumer) throws IOException {
+        int amount = 0;
+        int documents = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.VALUE_NULL) {
+                continue;  // empty document
+            } else if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected " + JsonToken.START_OBJECT + " but found " + token + "!");
+            }
+            amount += this.tokenLoader.load(parser, categories, consumer);
+            documents++;
+        }
+        LOG.debug("Loaded {} yaml records from {} documents", amount, documents);
+        return amount;
+    }
+
+    /**
+     * Creates a lazy loader (see {@link ShamPug#putLoader}) which reads the records of one category from a yaml file.
+     * @param category name of the category to be loaded - all other categories of the file are skipped
+     * @param file yaml file
+     */
+    public Supplier<Category> categoryFromFile(String category, Path file) {
+        Objects.requireNonNull(file, "Yaml file may not be null!");
+        return () -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                return readCategory(category, in);
+            } catch (IOException e) {
+                throw new ShamPugException("Cannot load the '" + category + "' records from " + file + "!", e);
+            }
+        };
+    }
+
+    /**
+     * Creates a lazy loader (see {@link ShamPug#putLoader}) which reads the records of one category from a classpath resource.
+     * @param category name of the category to be loaded - all other categories of the resource are skipped
+     * @param resource yaml resource (eg. '/fixtures/pugs.yaml')
+     */
+    public Supplier<Category> categoryFromResource(String category, String resource) {
+        Objects.requireNonNull(resource, "Yaml resource may not be null!");
+        return () -> {
+            try (InputStream in = CustomYamlLoader.class.getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new ShamPugException("Yaml resource '" + resource + "' not found!");
+                }
+                return readCategory(category, in);
+            } catch (IOException e) {
+                throw new ShamPugException("Cannot load the '" + category + "' records from " + resource + "!", e);
+            }
+        };
+    }
+
+    private Category readCategory(String name, InputStream in) throws IOException {
+        final Category category = new Category(name);
+        try (JsonParser parser = YAML_FACTORY.createParser(in)) {
+            load(parser, name::equals, category::add);
+        }
+        return category;
+    }
+}
@@ -0,0 +1,39 @@
+package com.tcmj.shampug.pub;
+
+/**
+ * Pre-resolved handle of one field of a {@link Schema}. Create it once by {@link Schema#field(String)}
+ * and use it with {@link Record#get(FieldKey)} to read the field without any string hashing.
+ * @param <V> type of the field values
+ */
+public final class FieldKey<V extends Comparable<? super V>> {
+
+    private final Schema schema;
+    private final String name;
+    private final int slot;
+
+    FieldKey(Schema schema, String name, int slot) {
+        this.schema = schema;
+        this.name = name;
+        this.slot = slot;
+    }
+
+    public Schema getSchema() {
+        return this.schema;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return index of this field within the value array of schema-bound records
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+
+    @Override
+    public String toString() {
+        return this.schema.getCategory() + "." + this.name + "@" + this.slot;
+    }
+}
@@ -1,5 +1,9 @@
 package com.tcmj.shampug.pub;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.stream.Stream;
+
 /**
  * This interface kinda imitates the behaviour of standard java Random class.
  * The benefit is that we can implement our own random class like {@link Randoms}
@@ -7,7 +11,7 @@ package com.tcmj.shampug.pub;
 public interface RandomUnit {
     double nextDouble();
 
-    Boolean nextBoolean();
+    boolean nextBoolean();
 
     long nextLong();
 
@@ -19,10 +23,110 @@ public interface RandomUnit {
 
     String nextHex();
 
+    /**
+     * Creates a random lowercase hex string (eg. a 32 char id) - same as {@code nextToken(TokenAlphabet.HEX, length)}.
+     * @param length amount of hex digits
+     * @return the random hex string
+     */
+    String nextHex(int length);
+
+    /**
+     * Creates a random (version 4) UUID string like '3f2b8e0c-59d4-4a61-9c1e-0d7f2a6b5e83'.
+     * @return the random UUID string with 36 characters
+     */
+    String nextUUID();
+
+    /**
+     * Creates a random token of the given alphabet.
+     * @param alphabet hex, base32 or base64 (url safe)
+     * @param length amount of characters
+     * @return the random token
+     */
+    String nextToken(TokenAlphabet alphabet, int length);
+
+    /**
+     * Writes a random token of the given alphabet directly into a char array.
+     * @param alphabet hex, base32 or base64 (url safe)
+     * @param dst destination array
+     * @param offset first position to be written
+     * @param length amount of characters
+     * @return the given array
+     */
+    char[] nextToken(TokenAlphabet alphabet, char[] dst, int offset, int length);
+
+    /**
+     * Appends a random token of the given alphabet.
+     * @param alphabet hex, base32 or base64 (url safe)
+     * @param dst destination builder
+     * @param length amount of characters
+     * @return the given builder
+     */
+    StringBuilder nextToken(TokenAlphabet alphabet, StringBuilder dst, int length);
+
+    /**
+     * Puts a random token of the given alphabet as US-ASCII bytes at the current position of the buffer.
+     * @param alphabet hex, base32 or base64 (url safe)
+     * @param dst destination buffer which needs at least {@code length} bytes remaining
+     * @param length amount of characters
+     * @return the given buffer
+     */
+    ByteBuffer nextToken(TokenAlphabet alphabet, ByteBuffer dst, int length);
+
     long nextLong(long min, long max);
 
     long nextLong(long min);
 
+    /**
+     * Fills the whole array with random integers within a range - same as calling {@link #nextInt(int, int)} for each element.
+     * @param dst array to be filled
+     * @param min lower bound (inclusive)
+     * @param max upper bound (exclusive)
+     * @return the given array
+     */
+    int[] nextInts(int[] dst, int min, int max);
+
+    /**
+     * Fills the whole array with random longs within a range - same as calling {@link #nextLong(long, long)} for each element.
+     * @param dst array to be filled
+     * @param min lower bound (inclusive)
+     * @param max upper bound (exclusive)
+     * @return the given array
+     */
+    long[] nextLongs(long[] dst, long min, long max);
+
+    /**
+     * Fills the whole array with random doubles between 0.0 (inclusive) and 1.0 (exclusive).
+     * @param dst array to be filled
+     * @return the given array
+     */
+    double[] nextDoubles(double[] dst);
+
+    /**
+     * Fills the whole array with random bits - each long holds 64 random booleans.
+     * Read the boolean number {@code i} using {@code (dst[i >>> 6] & (1L << i)) != 0}.
+     * @param dst bitset to be filled
+     * @return the given array
+     */
+    long[] nextBooleans(long[] dst);
+
+    /**
+     * Creates a new independent RandomUnit seeded from the next value of this one (like {@link java.util.SplittableRandom#split()}).
+     * Using the same seed and the same order of calls always results in the same children.
+     * @return a new RandomUnit which can be handed to another thread
+     */
+    RandomUnit split();
+
+    /**
+     * Derives the child RandomUnit of the given stream index without changing the state of this one.
+     * The result only depends on the seed of this unit and the index, so N threads or fork/join tasks can
+     * each derive their own reproducible sequence - no matter in which order they get scheduled.
+     * Units created without a seed fix a random stream seed on construction instead: their children are stable
+     * for the lifetime of the unit but differ from run to run.
+     * @param streamIndex any number identifying the child stream (eg. a worker or chunk number)
+     * @return a new RandomUnit which is always the same for the same seed and index
+     */
+    RandomUnit split(long streamIndex);
+
     /**
      * Creates a regular expression.
      * amount of chars used for infinite expressions (e.g. '+') is 100
@@ -49,4 +153,39 @@ public interface RandomUnit {
      * @return the random string based on the regex
      */
     String regex(String pattern, int infinity, boolean caseSensitivity);
+
+    /**
+     * Bulk variant of {@link #regex(String, int, boolean)} which resolves the pattern only once and fills the whole array.
+     * @param pattern regex pattern to be used
+     * @param infinity amount of chars used for infinite expression ('+')
+     * @param caseSensitivity true creates case sensitive results (e.g. 'aAaA'). false (default) creates 'aaaa'.
+     * @param target array to be filled with random strings based on the regex
+     * @return the given target array
+     */
+    String[] regexFill(String pattern, int infinity, boolean caseSensitivity, String[] target);
+
+    /**
+     * Bulk variant of {@link #regex(String, int, boolean)} which resolves the pattern only once.
+     * @param pattern regex pattern to be used
+     * @param infinity amount of chars used for infinite expression ('+')
+     * @param caseSensitivity true creates case sensitive results (e.g. 'aAaA'). false (default) creates 'aaaa'.
+     * @param count amount of strings to be created
+     * @return a (sequential) stream of random strings based on the regex
+     */
+    Stream<String> regexStream(String pattern, int infinity, boolean caseSensitivity, long count);
+
+    /**
+     * Bulk variant of {@link #regex(String, int, boolean)} which resolves the pattern only once and
+     * writes all results directly to the given output (eg. a {@link java.io.Writer} or a {@link StringBuilder}).
+     * @param pattern regex pattern to be used
+     * @param infinity amount of chars used for infinite expression ('+')
+     * @param caseSensitivity true creates case sensitive results (e.g. 'aAaA'). false (default) creates 'aaaa'.
+     * @param count amount of strings to be created
+     * @param delimiter written after each result (eg. a line separator)
+     * @param out where to write the results
+     * @param <A> type of the output
+     * @return the given output
+     * @throws IOException if the output cannot be written
+     */
+    <A extends Appendable> A regexAppend(String pattern, int infinity, boolean caseSensitivity, long count, CharSequence delimiter, A out) throws IOException;
 }
@@ -1,12 +1,16 @@
 package com.tcmj.shampug.pub;
 
 import com.github.curiousoddman.rgxgen.RgxGen;
-import com.github.curiousoddman.rgxgen.config.RgxGenOption;
-import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.tcmj.shampug.intern.RegexCache;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * <h2>Implementation of {@link RandomUnit}.</h2>
@@ -14,9 +18,16 @@ import java.util.concurrent.ThreadLocalRandom;
  * E.g. {@link #nextHex()} and {@link #regex(String)}
  */
 public class Randoms implements RandomUnit {
+    /** Compiled regex generators are free of random state, so all instances share one cache. */
+    private static final RegexCache REGEX_CACHE = new RegexCache(RegexCache.DEFAULT_CAPACITY);
+    /** Odd constant of the golden ratio used to space the seeds of derived streams (same as SplittableRandom). */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /** Hands out the stream seeds of unseeded instances without touching any random generator. */
+    private static final AtomicLong STREAM_SEEDER = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
     private final java.util.Random random;
-    private String regexPattern;
-    private RgxGen rgxGen;
+    /** Root of all streams derived by {@link #split(long)}: the seed or a fresh value for unseeded instances. */
+    private final long streamSeed;
 
     /**
      * Constructor to get a {@link Random} object with a random seed.
@@ -24,6 +35,7 @@ public class Randoms implements RandomUnit {
      */
     public Randoms() {
         this.random = ThreadLocalRandom.current();
+        this.streamSeed = nextStreamSeed();
     }
 
     /**
@@ -32,6 +44,7 @@ public class Randoms implements RandomUnit {
      */
     public Randoms(final long seed) {
         this.random = new Random(seed);
+        this.streamSeed = seed;
     }
 
     /**
@@ -41,6 +54,7 @@ public class Randoms implements RandomUnit {
      */
     public Randoms(java.util.Random random) {
         this.random = Objects.requireNonNull(random, "Please pass a non null instance of java.util.Random!");
+        this.streamSeed = nextStreamSeed();
     }
 
     @Override
@@ -49,7 +63,7 @@ public class Randoms implements RandomUnit {
     }
 
     @Override
-    public Boolean nextBoolean() {
+    public boolean nextBoolean() {
         return this.random.nextBoolean();
     }
 
@@ -94,10 +108,216 @@ public class Randoms implements RandomUnit {
         return this.random.nextInt((max - min)) + min;
     }
 
+    @Override
+    public int[] nextInts(final int[] dst, final int min, final int max) {
+        if (min >= max) {
+            throw new IllegalArgumentException("Upper bound must be greater than origin!");
+        }
+        final int bound = max - min;
+        if (this.random instanceof ThreadLocalRandom) {
+            final ThreadLocalRandom tlr = (ThreadLocalRandom) this.random;
+            for (int i = 0; i < dst.length; i++) {
+                dst[i] = tlr.nextInt(min, max);
+            }
+        } else if (bound > 0) {
+            final Random rnd = this.random;
+            for (int i = 0; i < dst.length; i++) {
+                dst[i] = rnd.nextInt(bound) + min;
+            }
+        } else { // range wider than Integer.MAX_VALUE
+            final Random rnd = this.random;
+            for (int i = 0; i < dst.length; i++) {
+                int r;
+                do {
+                    r = rnd.nextInt();
+                } while (r < min || r >= max);
+                dst[i] = r;
+            }
+        }
+        return dst;
+    }
+
+    @Override
+    public long[] nextLongs(final long[] dst, final long min, final long max) {
+        if (min >= max) {
+            throw new IllegalArgumentException("Upper bound must be greater than origin!");
+        }
+        final long bound = max - min;
+        if (this.random instanceof ThreadLocalRandom) {
+            final ThreadLocalRandom tlr = (ThreadLocalRandom) this.random;
+            for (int i = 0; i < dst.length; i++) {
+                dst[i] = tlr.nextLong(min, max);
+            }
+        } else if (bound > 0) {
+            final Random rnd = this.random;
+            final long limit = bound - 1;
+            for (int i = 0; i < dst.length; i++) {
+                long bits;
+                long val;
+                do {
+                    bits = (rnd.nextLong() << 1) >>> 1;
+                    val = bits % bound;
+                } while (bits - val + limit < 0L);
+                dst[i] = val + min;
+            }
+        } else { // range wider than Long.MAX_VALUE
+            final Random rnd = this.random;
+            for (int i = 0; i < dst.length; i++) {
+                long r;
+                do {
+                    r = rnd.nextLong();
+                } while (r < min || r >= max);
+                dst[i] = r;
+            }
+        }
+        return dst;
+    }
+
+    @Override
+    public double[] nextDoubles(final double[] dst) {
+        final Random rnd = this.random;
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = rnd.nextDouble();
+        }
+        return dst;
+    }
+
+    @Override
+    public long[] nextBooleans(final long[] dst) {
+        final Random rnd = this.random;
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = rnd.nextLong();
+        }
+        return dst;
+    }
+
+    @Override
+    public RandomUnit split() {
+        return new Randoms(mix64(this.random.nextLong()));
+    }
+
+    @Override
+    public RandomUnit split(final long streamIndex) {
+        return new Randoms(mix64(this.streamSeed + GOLDEN_GAMMA * (streamIndex + 1)));
+    }
+
+    private static long nextStreamSeed() {
+        return mix64(STREAM_SEEDER.getAndAdd(GOLDEN_GAMMA));
+    }
+
+    /**
+     * MurmurHash3 finalizer (variant 13 of David Stafford) - spreads neighbouring seeds over the whole long range.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
     @Override
     public String nextHex() {
-        final String hex = Long.toString(nextInt(256), 16);
-        return (hex.length() == 1) ? "0" + hex : hex;
+        final char[] hex = TokenAlphabet.HEX.chars();
+        final int value = nextInt(256);
+        return new String(new char[]{hex[value >>> 4], hex[value & 0xF]});
+    }
+
+    @Override
+    public String nextHex(final int length) {
+        return nextToken(TokenAlphabet.HEX, length);
+    }
+
+    @Override
+    public String nextUUID() {
+        final long msb = (this.random.nextLong() & ~0xF000L) | 0x4000L;                            // version 4
+        final long lsb = (this.random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;      // IETF variant
+        final char[] hex = TokenAlphabet.HEX.chars();
+        final char[] uuid = new char[36];
+        int pos = 0;
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            if (pos == 8 || pos == 13) {
+                uuid[pos++] = '-';
+            }
+            uuid[pos++] = hex[(int) (msb >>> shift) & 0xF];
+        }
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            if (pos == 18 || pos == 23) {
+                uuid[pos++] = '-';
+            }
+            uuid[pos++] = hex[(int) (lsb >>> shift) & 0xF];
+        }
+        return new String(uuid);
+    }
+
+    @Override
+    public String nextToken(final TokenAlphabet alphabet, final int length) {
+        return new String(nextToken(alphabet, new char[length], 0, length));
+    }
+
+    @Override
+    public char[] nextToken(final TokenAlphabet alphabet, final char[] dst, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > dst.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", array length=" + dst.length);
+        }
+        final char[] table = alphabet.chars();
+        final int bits = alphabet.bits();
+        final int mask = alphabet.mask();
+        final int perWord = alphabet.charsPerWord();
+        final int end = offset + length;
+        int pos = offset;
+        while (pos < end) {
+            long word = this.random.nextLong();
+            for (int i = Math.min(perWord, end - pos); i > 0; i--) {
+                dst[pos++] = table[(int) word & mask];
+                word >>>= bits;
+            }
+        }
+        return dst;
+    }
+
+    @Override
+    public StringBuilder nextToken(final TokenAlphabet alphabet, final StringBuilder dst, final int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length may not be negative: " + length);
+        }
+        dst.ensureCapacity(dst.length() + length);
+        final char[] table = alphabet.chars();
+        final int bits = alphabet.bits();
+        final int mask = alphabet.mask();
+        final int perWord = alphabet.charsPerWord();
+        int remaining = length;
+        while (remaining > 0) {
+            long word = this.random.nextLong();
+            for (int i = Math.min(perWord, remaining); i > 0; i--) {
+                dst.append(table[(int) word & mask]);
+                word >>>= bits;
+            }
+            remaining -= perWord;
+        }
+        return dst;
+    }
+
+    @Override
+    public ByteBuffer nextToken(final TokenAlphabet alphabet, final ByteBuffer dst, final int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length may not be negative: " + length);
+        }
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        final byte[] table = alphabet.bytes();
+        final int bits = alphabet.bits();
+        final int mask = alphabet.mask();
+        final int perWord = alphabet.charsPerWord();
+        int remaining = length;
+        while (remaining > 0) {
+            long word = this.random.nextLong();
+            for (int i = Math.min(perWord, remaining); i > 0; i--) {
+                dst.put(table[(int) word & mask]);
+                word >>>= bits;
+            }
+            remaining -= perWord;
+        }
+        return dst;
     }
 
     /**
@@ -141,10 +361,18 @@ public class Randoms implements RandomUnit {
         return val;
     }
 
+    /**
+     * Access to the regex cache shared by all Randoms instances, eg. to check the hit/miss counters.
+     * @return the cache of compiled regex generators
+     */
+    public static RegexCache getRegexCache() {
+        return REGEX_CACHE;
+    }
+
     /**
      * Just use a regex pattern to build your random string.
-     * For performance reasons you should create one ShamPug instance for each regex patterns because
-     * caching takes place if the regex pattern doesn't change from call to call.
+     * Compiled patterns are cached (see {@link #getRegexCache()}), so you can freely alternate between
+     * many different patterns without parsing them again and again.
      * @param pattern regular expression pattern
      * @return random representation matching your pattern
      */
@@ -161,17 +389,48 @@ public class Randoms implements RandomUnit {
         return regexIntern(pattern, infinity, caseSensitivity);
     }
 
+    @Override
+    public String[] regexFill(final String pattern, int infinity, boolean caseSensitivity, final String[] target) {
+        Objects.requireNonNull(target, "Target array may not be null!");
+        final RgxGen rgxGen = compile(pattern, infinity, caseSensitivity);
+        final Random rnd = this.random;
+        for (int i = 0; i < target.length; i++) {
+            target[i] = rgxGen.generate(rnd);
+        }
+        return target;
+    }
+
+    @Override
+    public Stream<String> regexStream(final String pattern, int infinity, boolean caseSensitivity, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count may not be negative: " + count);
+        }
+        final RgxGen rgxGen = compile(pattern, infinity, caseSensitivity);
+        final Random rnd = this.random;
+        return Stream.generate(() -> rgxGen.generate(rnd)).limit(count);
+    }
+
+    @Override
+    public <A extends Appendable> A regexAppend(final String pattern, int infinity, boolean caseSensitivity, long count, CharSequence delimiter, final A out) throws IOException {
+        Objects.requireNonNull(out, "Output may not be null!");
+        final RgxGen rgxGen = compile(pattern, infinity, caseSensitivity);
+        final Random rnd = this.random;
+        for (long i = 0; i < count; i++) {
+            out.append(rgxGen.generate(rnd));
+            if (delimiter != null) {
+                out.append(delimiter);
+            }
+        }
+        return out;
+    }
+
     private String regexIntern(final String pattern, int infinity, boolean caseSensitivity) {
+        return compile(pattern, infinity, caseSensitivity).generate(this.random);
+    }
+
+    private static RgxGen compile(final String pattern, int infinity, boolean caseSensitivity) {
         Objects.requireNonNull(pattern, "Regex pattern may not be null!");
-        if (this.regexPattern == null || !this.regexPattern.equals(pattern)) {
-            this.regexPattern = pattern;
-            this.rgxGen = new RgxGen(pattern);
-        }
-        RgxGenProperties rgxGenProperties = new RgxGenProperties();
-        rgxGenProperties.setProperty(RgxGenOption.INFINITE_PATTERN_REPETITION.getKey(), String.valueOf(infinity));
-        rgxGenProperties.setProperty(RgxGenOption.CASE_INSENSITIVE.getKey(), String.valueOf(caseSensitivity));
-        this.rgxGen.setProperties(rgxGenProperties);
-        return this.rgxGen.generate(this.random);
+        return REGEX_CACHE.get(pattern, infinity, caseSensitivity);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.tcmj.shampug.pub;
+
+import java.util.Objects;
+
+/**
+ * Inclusive numeric range of one field, used for range-constrained draws like
+ * {@code shamPug.get("countries", Range.of("population", 5_000_000, 50_000_000))}.
+ */
+public final class Range {
+
+    private final String field;
+    private final double min;
+    private final double max;
+
+    private Range(String field, double min, double max) {
+        this.field = Objects.requireNonNull(field, "Please pass a non null range field!");
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            throw new IllegalArgumentException("Range bounds may not be NaN!");
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return the range from min to max (both inclusive)
+     */
+    public static Range of(String field, double min, double max) {
+        return new Range(field, min, max);
+    }
+
+    public static Range atLeast(String field, double min) {
+        return new Range(field, min, Double.POSITIVE_INFINITY);
+    }
+
+    public static Range atMost(String field, double max) {
+        return new Range(field, Double.NEGATIVE_INFINITY, max);
+    }
+
+    public String getField() {
+        return this.field;
+    }
+
+    public double getMin() {
+        return this.min;
+    }
+
+    public double getMax() {
+        return this.max;
+    }
+
+    /**
+     * @return true if the field of the record holds a number within this range
+     */
+    public boolean contains(Record<?> record) {
+        final Comparable<?> value = record.get(this.field);
+        if (!(value instanceof Number)) {
+            return false;
+        }
+        final double number = ((Number) value).doubleValue();
+        return number >= this.min && number <= this.max;
+    }
+
+    @Override
+    public String toString() {
+        return this.min + " <= " + this.field + " <= " + this.max;
+    }
+}
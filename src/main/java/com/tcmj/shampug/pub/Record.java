@@ -1,5 +1,6 @@
 package com.tcmj.shampug.pub;
 
+import java.util.Objects;
 import java.util.Set;
 
 public interface Record<T extends Comparable<T>> {
@@ -8,6 +9,101 @@ public interface Record<T extends Comparable<T>> {
 
     <V extends Comparable<? super V>> void set(String field, V value);
 
+    /**
+     * Fast access using a pre-resolved field handle (see {@link Schema#field(String)}).
+     * Schema-bound records read the slot directly, all others fall back to the field name.
+     * @param key handle of the field
+     * @return the field value or null if not set
+     */
+    default <V extends Comparable<? super V>> V get(FieldKey<V> key) {
+        return get(key.getName());
+    }
+
+    /**
+     * Fast write access using a pre-resolved field handle (see {@link Schema#field(String)}).
+     * Schema-bound records write the slot directly, all others fall back to the field name.
+     * @param key handle of the field
+     * @param value the new field value
+     */
+    default <V extends Comparable<? super V>> void set(FieldKey<V> key, V value) {
+        set(key.getName(), value);
+    }
+
+    /**
+     * Reads a numeric field without boxing if the record stores it unboxed (schema-bound records do).
+     * @param name field name
+     * @return the value converted to int
+     * @throws NullPointerException if the field isn't set
+     */
+    default int getInt(String name) {
+        return ((Number) Objects.requireNonNull(get(name), () -> "No value for field '" + name + "'!")).intValue();
+    }
+
+    default int getInt(FieldKey<Integer> key) {
+        return getInt(key.getName());
+    }
+
+    default long getLong(String name) {
+        return ((Number) Objects.requireNonNull(get(name), () -> "No value for field '" + name + "'!")).longValue();
+    }
+
+    default long getLong(FieldKey<Long> key) {
+        return getLong(key.getName());
+    }
+
+    default double getDouble(String name) {
+        return ((Number) Objects.requireNonNull(get(name), () -> "No value for field '" + name + "'!")).doubleValue();
+    }
+
+    default double getDouble(FieldKey<Double> key) {
+        return getDouble(key.getName());
+    }
+
+    default boolean getBoolean(String name) {
+        return (Boolean) Objects.requireNonNull(get(name), () -> "No value for field '" + name + "'!");
+    }
+
+    default boolean getBoolean(FieldKey<Boolean> key) {
+        return getBoolean(key.getName());
+    }
+
+    /**
+     * Writes a numeric field. Schema-bound records store the value unboxed.
+     * @param field field name
+     * @param value the new field value
+     */
+    default void setInt(String field, int value) {
+        set(field, value);
+    }
+
+    default void setInt(FieldKey<Integer> key, int value) {
+        set(key, value);
+    }
+
+    default void setLong(String field, long value) {
+        set(field, value);
+    }
+
+    default void setLong(FieldKey<Long> key, long value) {
+        set(key, value);
+    }
+
+    default void setDouble(String field, double value) {
+        set(field, value);
+    }
+
+    default void setDouble(FieldKey<Double> key, double value) {
+        set(key, value);
+    }
+
+    default void setBoolean(String field, boolean value) {
+        set(field, value);
+    }
+
+    default void setBoolean(FieldKey<Boolean> key, boolean value) {
+        set(key, value);
+    }
+
     String key();
 
     Set<String> getTokens();
@@ -0,0 +1,93 @@
+package com.tcmj.shampug.pub;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional field layout shared by all records of one category.
+ * <p>
+ * Each field name gets a fixed integer slot, so schema-bound records store their values in a compact array
+ * instead of their own HashMap. Resolve the fields you need in hot loops once into {@link FieldKey} handles -
+ * accessing a record by a FieldKey is a plain array access without hashing the field name:
+ * </p>
+ * <pre>
+ *     Schema countries = new Schema("countries");
+ *     FieldKey&lt;Integer&gt; POPULATION = countries.field("population");
+ *     shamPug.put(new CustomMem(countries, shamPug.getRandomUnit()).add("name", "Austria").add("population", 9_006_398));
+ *     Integer population = shamPug.&lt;CustomMem&gt;get("countries").get(POPULATION);
+ * </pre>
+ * New fields may be added at any time (append only), existing slots never change.
+ */
+public final class Schema {
+
+    private final String category;
+    private final Map<String, FieldKey<?>> keys = new ConcurrentHashMap<>();
+    private volatile List<String> names = Collections.emptyList();
+
+    public Schema(String category) {
+        this.category = Objects.requireNonNull(category, "Category name may not be null!");
+    }
+
+    /**
+     * @return name of the category whose records use this schema
+     */
+    public String getCategory() {
+        return this.category;
+    }
+
+    /**
+     * Resolves the handle of a field and assigns the next free slot if the field is new.
+     * @param name field name
+     * @param <V> type of the field values
+     * @return the handle to access the field of all records of this schema
+     */
+    @SuppressWarnings("unchecked")
+    public <V extends Comparable<? super V>> FieldKey<V> field(String name) {
+        FieldKey<?> key = this.keys.get(name);
+        if (key == null) {
+            synchronized (this) {
+                key = this.keys.get(name);
+                if (key == null) {
+                    final List<String> extended = new ArrayList<>(this.names);
+                    key = new FieldKey<>(this, Objects.requireNonNull(name, "Field name may not be null!"), extended.size());
+                    extended.add(name);
+                    this.names = Collections.unmodifiableList(extended);
+                    this.keys.put(name, key);
+                }
+            }
+        }
+        return (FieldKey<V>) key;
+    }
+
+    /**
+     * @param name field name
+     * @return the slot of the field or -1 if this schema doesn't know the field
+     */
+    public int slotOf(String name) {
+        final FieldKey<?> key = this.keys.get(name);
+        return key == null ? -1 : key.getSlot();
+    }
+
+    /**
+     * @return all field names ordered by their slot
+     */
+    public List<String> getFieldNames() {
+        return this.names;
+    }
+
+    /**
+     * @return amount of fields (slots)
+     */
+    public int size() {
+        return this.names.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Schema[" + this.category + "]" + this.names;
+    }
+}
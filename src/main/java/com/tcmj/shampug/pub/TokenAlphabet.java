@@ -0,0 +1,64 @@
+package com.tcmj.shampug.pub;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Alphabets used to create random tokens (see {@link RandomUnit#nextToken(TokenAlphabet, int)}).
+ * Each alphabet has a power of two size, so one random 64 bit word is cut into several characters at once
+ * and every character is just a lookup into a precomputed table.
+ */
+public enum TokenAlphabet {
+    /** Lowercase hexadecimal digits: 16 characters per random long. */
+    HEX("0123456789abcdef"),
+    /** RFC 4648 base32 alphabet: 12 characters per random long. */
+    BASE32("ABCDEFGHIJKLMNOPQRSTUVWXYZ234567"),
+    /** RFC 4648 url and filename safe base64 alphabet: 10 characters per random long. */
+    BASE64("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_");
+
+    private final char[] chars;
+    private final byte[] bytes;
+    private final int bits;
+    private final int charsPerWord;
+
+    TokenAlphabet(String alphabet) {
+        this.chars = alphabet.toCharArray();
+        this.bytes = alphabet.getBytes(StandardCharsets.US_ASCII);
+        this.bits = Integer.numberOfTrailingZeros(alphabet.length());
+        this.charsPerWord = Long.SIZE / this.bits;
+    }
+
+    /**
+     * @return lookup table of all characters (do not modify)
+     */
+    char[] chars() {
+        return this.chars;
+    }
+
+    /**
+     * @return lookup table of all characters as US-ASCII bytes (do not modify)
+     */
+    byte[] bytes() {
+        return this.bytes;
+    }
+
+    /**
+     * @return amount of random bits consumed per character
+     */
+    public int bits() {
+        return this.bits;
+    }
+
+    /**
+     * @return amount of characters created out of one random long
+     */
+    public int charsPerWord() {
+        return this.charsPerWord;
+    }
+
+    /**
+     * @return bit mask to extract a table index out of a random word
+     */
+    int mask() {
+        return (1 << this.bits) - 1;
+    }
+}
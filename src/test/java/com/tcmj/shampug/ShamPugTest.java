@@ -0,0 +1,186 @@
+package com.tcmj.shampug;
+
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Range;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ShamPugTest {
+
+    private static final String CATEGORY_NAME = "numbers";
+    private static final long SEED = 1000L;
+    private static final int COUNT = 100_000;
+
+    private static ShamPug newShamPug() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).usingSeed(SEED).create();
+        for (int i = 0; i < 500; i++) {
+            shamPug.put(new CustomMem(CATEGORY_NAME, shamPug.getRandomUnit()).add("number", i));
+        }
+        return shamPug;
+    }
+
+    @Test
+    void parallelStreamEqualsSequentialStream() {
+        List<Integer> sequential = newShamPug().<CustomMem>stream(CATEGORY_NAME, COUNT)
+            .map(record -> record.<Integer>get("number"))
+            .collect(Collectors.toList());
+        List<Integer> parallel = newShamPug().<CustomMem>stream(CATEGORY_NAME, COUNT)
+            .parallel()
+            .map(record -> record.<Integer>get("number"))
+            .collect(Collectors.toList());
+
+        assertEquals(COUNT, sequential.size());
+        assertEquals(sequential, parallel, "Seeded streams must not depend on the amount of cores!");
+    }
+
+    @Test
+    void streamsAreReproducible() {
+        ShamPug first = newShamPug();
+        ShamPug second = newShamPug();
+        for (int i = 0; i < 3; i++) {
+            List<Record<CustomMem>> a = first.<CustomMem>stream(CATEGORY_NAME, 50).collect(Collectors.toList());
+            List<Record<CustomMem>> b = second.<CustomMem>stream(CATEGORY_NAME, 50).collect(Collectors.toList());
+            assertEquals(a.stream().map(r -> r.get("number")).collect(Collectors.toList()),
+                b.stream().map(r -> r.get("number")).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void streamOfUnknownCategory() {
+        assertThrows(ShamPugException.class, () -> newShamPug().stream("ThisThingIsNotAvailable", 10));
+    }
+
+    @Test
+    void weightedDrawsFollowTheWeights() {
+        ShamPug shamPug = newShamPug().putWeights(CATEGORY_NAME, "number");
+        List<Integer> uniform = newShamPug().<CustomMem>stream(CATEGORY_NAME, COUNT)
+            .map(record -> record.<Integer>get("number")).collect(Collectors.toList());
+        List<Integer> weighted = shamPug.<CustomMem>stream(CATEGORY_NAME, COUNT)
+            .map(record -> record.<Integer>get("number")).collect(Collectors.toList());
+        assertNotEquals(uniform, weighted);
+        // weights 0..499: the mean is (2n-1)/3 = 333 instead of 249.5
+        assertEquals(333.0, weighted.stream().mapToInt(Integer::intValue).average().getAsDouble(), 2.0);
+        assertEquals(0, weighted.stream().filter(number -> number == 0).count());
+
+        // the table gets rebuilt lazily including records added later on
+        shamPug.put(new CustomMem(CATEGORY_NAME, shamPug.getRandomUnit()).add("number", 1_000_000_000));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1_000_000_000, shamPug.<CustomMem>get(CATEGORY_NAME).getInt("number"));
+        }
+        shamPug.put(new CustomMem(CATEGORY_NAME, shamPug.getRandomUnit()).add("number", -1));
+        assertThrows(ShamPugException.class, () -> shamPug.get(CATEGORY_NAME));
+    }
+
+    @Test
+    void filteredDrawsUseTheIndex() {
+        ShamPug shamPug = newShamPug();
+        assertThrows(ShamPugException.class, () -> shamPug.get(CATEGORY_NAME, "number", 7));
+        shamPug.putIndex(CATEGORY_NAME, "number");
+        assertEquals(7, shamPug.<CustomMem>get(CATEGORY_NAME, "number", 7).getInt("number"));
+        assertEquals(499, shamPug.<CustomMem>get(CATEGORY_NAME, "number", 499L).getInt("number"));
+        assertThrows(ShamPugException.class, () -> shamPug.get(CATEGORY_NAME, "number", 500));
+        assertThrows(ShamPugException.class, () -> shamPug.get("ThisThingIsNotAvailable", "number", 7));
+    }
+
+    @Test
+    void rangeDrawsUseTheRangeIndex() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).usingSeed(SEED).create();
+        shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Afghanistan").add("population", 38_928_346).add("density", 60));
+        shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Austria").add("population", 9_006_398).add("density", 109));
+        shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Cuba").add("population", 11_326_616).add("density", 106));
+        shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Egypt").add("population", 102_334_404).add("density", 103));
+        shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Russia").add("population", 145_934_462).add("density", 9));
+        assertThrows(ShamPugException.class, () -> shamPug.get("countries", Range.of("population", 0, 1)));
+        shamPug.putRangeIndex("countries", "population").putRangeIndex("countries", "density");
+
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            names.add(shamPug.<CustomMem>get("countries", Range.of("population", 5_000_000, 50_000_000)).get("name"));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("Afghanistan", "Austria", "Cuba")), names);
+
+        names.clear();
+        for (int i = 0; i < 1000; i++) {
+            names.add(shamPug.<CustomMem>get("countries", Range.atLeast("population", 5_000_000), Range.of("density", 100, 110)).get("name"));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("Austria", "Cuba", "Egypt")), names);
+
+        shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Monaco").add("population", 39_242).add("density", 26_337));
+        assertEquals("Monaco", shamPug.<CustomMem>get("countries", Range.atMost("population", 100_000)).get("name"));
+        assertThrows(ShamPugException.class, () -> shamPug.get("countries", Range.atMost("population", 1_000), Range.atLeast("density", 0)));
+        assertThrows(ShamPugException.class, () -> shamPug.get("countries", Range.of("population", 10, 1)));
+        assertNull(shamPug.getRegistry().getRangeIndex("countries", "name"));
+    }
+
+    @Test
+    void samplesAreDistinct() {
+        ShamPug shamPug = newShamPug();
+        for (int k : new int[]{0, 1, 10, 100, 125, 126, 499, 500}) {
+            List<Record<CustomMem>> sample = shamPug.sample(CATEGORY_NAME, k);
+            assertEquals(k, sample.size());
+            assertEquals(k, sample.stream().map(record -> record.get("number")).distinct().count());
+        }
+        assertThrows(ShamPugException.class, () -> shamPug.sample(CATEGORY_NAME, 501));
+        assertThrows(IllegalArgumentException.class, () -> shamPug.sample(CATEGORY_NAME, -1));
+
+        // every number gets sampled equally often
+        int[] counts = new int[500];
+        for (int i = 0; i < 2000; i++) {
+            for (Record<CustomMem> record : shamPug.<CustomMem>sample(CATEGORY_NAME, 10)) {
+                counts[record.getInt("number")]++;
+            }
+        }
+        for (int count : counts) {
+            assertEquals(40, count, 25);
+        }
+    }
+
+    @Test
+    void samplesOfSmallCategoriesAreUniform() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).usingSeed(SEED).create();
+        for (int i = 0; i < 8; i++) {
+            shamPug.put(new CustomMem("eight", shamPug.getRandomUnit()).add("number", i));
+        }
+        Map<Set<Integer>, Integer> subsets = new HashMap<>();
+        for (int i = 0; i < 140_000; i++) {
+            Set<Integer> subset = shamPug.<CustomMem>sample("eight", 4).stream().map(record -> record.getInt("number")).collect(Collectors.toSet());
+            subsets.merge(subset, 1, Integer::sum);
+        }
+        assertEquals(70, subsets.size());
+        subsets.values().forEach(count -> assertEquals(2000, count, 250));
+    }
+
+    @Test
+    void shuffledVisitsEveryRecordOnce() {
+        ShamPug shamPug = newShamPug();
+        Iterator<Record<CustomMem>> shuffled = shamPug.shuffled(CATEGORY_NAME);
+        Set<Integer> numbers = new HashSet<>();
+        List<Integer> order = new ArrayList<>();
+        while (shuffled.hasNext()) {
+            int number = shuffled.next().getInt("number");
+            assertTrue(numbers.add(number));
+            order.add(number);
+        }
+        assertEquals(500, numbers.size());
+        assertNotEquals(new ArrayList<>(new TreeSet<>(numbers)), order);
+    }
+}
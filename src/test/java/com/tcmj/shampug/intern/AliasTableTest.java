@@ -0,0 +1,46 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Randoms;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Positions are drawn proportional to their weights.
+ */
+class AliasTableTest {
+
+    @Test
+    void drawsProportionalToTheWeights() {
+        double[] weights = {1.0, 0.0, 3.0, 6.0, 0.5, 9.5};
+        AliasTable table = AliasTable.of(weights, weights.length);
+        RandomUnit random = new Randoms(1000L);
+        int[] counts = new int[weights.length];
+        int draws = 1_000_000;
+        for (int i = 0; i < draws; i++) {
+            counts[table.next(random)]++;
+        }
+        assertEquals(0, counts[1]);
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / 20.0, counts[i] / (double) draws, 0.002, "Position " + i);
+        }
+    }
+
+    @Test
+    void usesTheFirstWeightsOnly() {
+        AliasTable table = AliasTable.of(new double[]{0.0, 2.0, 7.0}, 2);
+        assertEquals(2, table.size());
+        RandomUnit random = new Randoms(1000L);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, table.next(random));
+        }
+    }
+
+    @Test
+    void needsAPositiveTotalWeight() {
+        assertThrows(ShamPugException.class, () -> AliasTable.of(new double[]{0.0, 0.0}, 2));
+        assertThrows(ShamPugException.class, () -> AliasTable.of(new double[0], 0));
+    }
+}
@@ -0,0 +1,88 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.modules.address.Address;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Randoms;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The hash index groups the record positions by field value and catches up with new records.
+ */
+class HashIndexTest {
+
+    @Test
+    void drawsUniformlyFromTheMatchingRecords() {
+        RandomUnit random = new Randoms(1000L);
+        Category pugs = new Category("pugs");
+        for (int i = 0; i < 1000; i++) {
+            pugs.add(new CustomMem("pugs", random).add("id", i).add("color", i % 3 == 0 ? "B" : "W"));
+        }
+        HashIndex index = new HashIndex("color");
+        assertEquals(334, index.count(pugs, "B"));
+        assertEquals(666, index.count(pugs, "W"));
+        assertEquals(0, index.count(pugs, "X"));
+        assertEquals(-1, index.draw(pugs, "X", random));
+        assertEquals(-1, index.draw(pugs, null, random));
+
+        int[] hits = new int[1000];
+        for (int i = 0; i < 334_000; i++) {
+            int position = index.draw(pugs, "B", random);
+            assertEquals("B", pugs.get(position).get("color"));
+            hits[position]++;
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            assertEquals(1000, hits[i], 150, "Position " + i);
+        }
+
+        pugs.add(new CustomMem("pugs", random).add("id", 1000).add("color", "X"));
+        pugs.add(new CustomMem("pugs", random).add("id", 1001));
+        assertEquals(1000, pugs.get(index.draw(pugs, "X", random)).getInt("id"));
+    }
+
+    @Test
+    void integralNumbersMatchByValue() {
+        RandomUnit random = new Randoms(1000L);
+        Category pugs = new Category("pugs");
+        pugs.add(new CustomMem("pugs", random).add("id", 1).add("age", 7));
+        pugs.add(new CustomMem("pugs", random).add("id", 2).add("age", 7L));
+        pugs.add(new CustomMem("pugs", random).add("id", 3).add("age", BigInteger.valueOf(7L)));
+        pugs.add(new CustomMem("pugs", random).add("id", 4).add("age", BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)));
+        HashIndex index = new HashIndex("age");
+        assertEquals(3, index.count(pugs, 7));
+        assertEquals(3, index.count(pugs, 7L));
+        assertEquals(3, index.count(pugs, BigInteger.valueOf(7L)));
+        assertEquals(0, index.count(pugs, 7.0));
+        assertEquals(0, index.count(pugs, Long.MIN_VALUE));
+        assertEquals(1, index.count(pugs, new BigInteger("9223372036854775808")));
+    }
+
+    @Test
+    void charactersMatchTheirString() {
+        RandomUnit random = new Randoms(1000L);
+        Category pugs = new Category("pugs");
+        pugs.add(new CustomMem("pugs", random).add("id", 1).add("color", 'B'));
+        pugs.add(new CustomMem("pugs", random).add("id", 2).add("color", "B"));
+        pugs.add(new CustomMem("pugs", random).add("id", 3).add("color", "BW"));
+        HashIndex index = new HashIndex("color");
+        assertEquals(2, index.count(pugs, 'B'));
+        assertEquals(2, index.count(pugs, "B"));
+        assertEquals(1, index.count(pugs, "BW"));
+    }
+
+    @Test
+    void indexesAddresses() {
+        RandomUnit random = new Randoms(1000L);
+        Category addresses = new Category(Address.class.getName());
+        addresses.add(new Address(random).lastName("Stark").state("North"));
+        addresses.add(new Address(random).lastName("Lannister").state("Westerlands"));
+        addresses.add(new Address(random).lastName("Karstark").state("North"));
+        HashIndex index = new HashIndex(Address.STATE);
+        assertEquals(2, index.count(addresses, "North"));
+        assertEquals("Lannister", addresses.get(index.draw(addresses, "Westerlands", random)).get(Address.LAST_NAME));
+    }
+}
@@ -0,0 +1,85 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.pub.Randoms;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The cursor visits every position exactly once.
+ */
+class PermutationCursorTest {
+
+    @Test
+    void visitsEveryPositionExactlyOnce() {
+        Randoms random = new Randoms(1000L);
+        for (int size : new int[]{0, 1, 2, 3, 4, 5, 7, 8, 9, 100, 1000, 1024, 1025, 65_537}) {
+            for (int round = 0; round < 5; round++) {
+                PermutationCursor cursor = new PermutationCursor(size, random);
+                boolean[] seen = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    int position = cursor.next();
+                    assertFalse(seen[position], "Position " + position + " of " + size + " visited twice!");
+                    seen[position] = true;
+                }
+                assertFalse(cursor.hasNext());
+                assertEquals(0, cursor.remaining());
+                assertThrows(NoSuchElementException.class, cursor::next);
+            }
+        }
+    }
+
+    @Test
+    void differentPermutations() {
+        Randoms random = new Randoms(1000L);
+        PermutationCursor first = new PermutationCursor(1000, random);
+        PermutationCursor second = new PermutationCursor(1000, random);
+        int[] a = new int[1000];
+        int[] b = new int[1000];
+        int inPlace = 0;
+        for (int i = 0; i < 1000; i++) {
+            a[i] = first.next();
+            b[i] = second.next();
+            inPlace += a[i] == i ? 1 : 0;
+        }
+        assertNotEquals(Arrays.toString(a), Arrays.toString(b));
+        assertEquals(0, inPlace, 10);
+    }
+
+    @Test
+    void smallPermutationsAreUniform() {
+        Randoms random = new Randoms(1000L);
+        // all 24 orders of 4 positions
+        Map<String, Integer> orders = new HashMap<>();
+        for (int i = 0; i < 48_000; i++) {
+            PermutationCursor cursor = new PermutationCursor(4, random);
+            orders.merge(Arrays.toString(new int[]{cursor.next(), cursor.next(), cursor.next(), cursor.next()}), 1, Integer::sum);
+        }
+        assertEquals(24, orders.size());
+        orders.values().forEach(count -> assertEquals(2000, count, 250));
+
+        // all 70 subsets of 4 out of 8 positions
+        Map<String, Integer> subsets = new HashMap<>();
+        for (int i = 0; i < 140_000; i++) {
+            PermutationCursor cursor = new PermutationCursor(8, random);
+            int[] subset = {cursor.next(), cursor.next(), cursor.next(), cursor.next()};
+            Arrays.sort(subset);
+            subsets.merge(Arrays.toString(subset), 1, Integer::sum);
+        }
+        assertEquals(70, subsets.size());
+        subsets.values().forEach(count -> assertEquals(2000, count, 250));
+    }
+
+    @Test
+    void negativeSize() {
+        assertThrows(IllegalArgumentException.class, () -> new PermutationCursor(-1, new Randoms(1000L)));
+    }
+}
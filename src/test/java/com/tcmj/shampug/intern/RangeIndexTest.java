@@ -0,0 +1,69 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Randoms;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The range index keeps the record positions ordered by value and merges in new records.
+ */
+class RangeIndexTest {
+
+    @Test
+    void resolvesRangesByBinarySearch() {
+        RandomUnit random = new Randoms(1000L);
+        Category numbers = new Category("numbers");
+        for (int i = 0; i < 10_000; i++) {
+            numbers.add(new CustomMem("numbers", random).add("id", i).add("value", random.nextInt(0, 1000)));
+        }
+        numbers.add(new CustomMem("numbers", random).add("id", -1).add("value", "no number"));
+        RangeIndex index = new RangeIndex("value");
+        RangeIndex.Sorted sorted = index.sorted(numbers);
+        assertEquals(10_000, sorted.size());
+        assertSorted(numbers, sorted);
+
+        int low = sorted.lowerBound(100);
+        int high = sorted.upperBound(199.5);
+        for (int rank = low; rank < high; rank++) {
+            int value = numbers.get(sorted.position(rank)).getInt("value");
+            assertTrue(value >= 100 && value <= 199, "Value " + value);
+        }
+        assertTrue(numbers.get(sorted.position(low - 1)).getInt("value") < 100);
+        assertTrue(numbers.get(sorted.position(high)).getInt("value") > 199);
+        assertEquals(0, sorted.lowerBound(Double.NEGATIVE_INFINITY));
+        assertEquals(10_000, sorted.upperBound(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void mergesNewRecords() {
+        RandomUnit random = new Randoms(1000L);
+        Category numbers = new Category("numbers");
+        RangeIndex index = new RangeIndex("value");
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1000; i++) {
+                numbers.add(new CustomMem("numbers", random).add("id", round * 1000 + i).add("value", random.nextDouble() * 10));
+            }
+            RangeIndex.Sorted sorted = index.sorted(numbers);
+            assertEquals(numbers.size(), sorted.size());
+            assertSorted(numbers, sorted);
+        }
+    }
+
+    private static void assertSorted(Category category, RangeIndex.Sorted sorted) {
+        boolean[] seen = new boolean[category.size()];
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int rank = 0; rank < sorted.size(); rank++) {
+            int position = sorted.position(rank);
+            double value = category.get(position).getDouble("value");
+            assertTrue(value >= previous);
+            assertFalse(seen[position]);
+            seen[position] = true;
+            previous = value;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tcmj.shampug.intern;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegexCacheTest {
+
+    private static final String IBAN = "DE\\d{20}";
+    private static final String PHONE = "01[7856][0-9]{2}-[0-9]{6}";
+    private static final String SKU = "[A-Z]{3}-[0-9]{5}";
+
+    @Test
+    void alternatingPatternsAreCompiledOnlyOnce() {
+        RegexCache cache = new RegexCache(RegexCache.DEFAULT_CAPACITY);
+        Random random = new Random(1000L);
+        for (int i = 0; i < 100; i++) {
+            for (String regex : new String[]{IBAN, PHONE, SKU}) {
+                String result = cache.get(regex, 100, false).generate(random);
+                assertTrue(Pattern.matches(regex, result), "Regex not valid: " + result);
+            }
+        }
+        assertEquals(3, cache.getMisses());
+        assertEquals(297, cache.getHits());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void optionsArePartOfTheKey() {
+        RegexCache cache = new RegexCache(RegexCache.DEFAULT_CAPACITY);
+        RgxGen hundred = cache.get("a+", 100, false);
+        assertSame(hundred, cache.get("a+", 100, false));
+        assertNotSame(hundred, cache.get("a+", 5, false));
+        assertNotSame(hundred, cache.get("a+", 100, true));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedGetsEvicted() {
+        RegexCache cache = new RegexCache(2);
+        RgxGen iban = cache.get(IBAN, 100, false);
+        cache.get(PHONE, 100, false);
+        cache.get(IBAN, 100, false); // IBAN is now the most recently used one
+        cache.get(SKU, 100, false);  // ...so PHONE gets evicted
+        assertEquals(2, cache.size());
+        assertSame(iban, cache.get(IBAN, 100, false));
+        long misses = cache.getMisses();
+        cache.get(PHONE, 100, false);
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    @Test
+    void invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RegexCache(0));
+    }
+}
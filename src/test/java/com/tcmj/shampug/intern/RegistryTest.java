@@ -0,0 +1,343 @@
+package com.tcmj.shampug.intern;
+
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Randoms;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The registry is shared by every ShamPug created with {@link Strategy#GLOBAL}, so it has to survive
+ * loading data on some threads while other threads already draw from it.
+ */
+class RegistryTest {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int RECORDS_PER_WRITER = 20_000;
+    private static final String CATEGORY_NAME = "stress";
+
+    @Test
+    void keepsInsertionOrderAndIgnoresDuplicates() {
+        Registry registry = new Registry(Strategy.NEW_INSTANCE);
+        RandomUnit randomUnit = new Randoms(1000L);
+        CustomMem first = new CustomMem(CATEGORY_NAME, randomUnit).add("name", "Baby");
+        CustomMem second = new CustomMem(CATEGORY_NAME, randomUnit).add("name", "Emmy");
+        registry.put(CATEGORY_NAME, first);
+        registry.put(CATEGORY_NAME, second);
+        registry.put(CATEGORY_NAME, first);
+
+        Category category = registry.lookup(CATEGORY_NAME);
+        assertEquals(2, category.size());
+        assertSame(first, category.get(0));
+        assertSame(second, category.get(1));
+        assertTrue(category.contains(second));
+    }
+
+    @Test
+    void concurrentWritersAndReaders() throws Exception {
+        final Registry registry = new Registry(Strategy.GLOBAL);
+        final RandomUnit randomUnit = new Randoms(1000L);
+        // every record is put twice by two different writers to provoke duplicate races
+        final List<List<CustomMem>> batches = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            List<CustomMem> batch = new ArrayList<>(RECORDS_PER_WRITER);
+            for (int i = 0; i < RECORDS_PER_WRITER; i++) {
+                batch.add(new CustomMem(CATEGORY_NAME, randomUnit).add("writer", w).add("index", i));
+            }
+            batches.add(batch);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(WRITERS * 2 + READERS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final List<Future<?>> writers = new ArrayList<>();
+        final List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS * 2; w++) {
+                final List<CustomMem> batch = batches.get(w % WRITERS);
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (CustomMem record : batch) {
+                        registry.put(CATEGORY_NAME, record);
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                final Randoms readerRandoms = new Randoms(r);
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        Category category = registry.lookup(CATEGORY_NAME);
+                        if (category == null || category.isEmpty()) {
+                            continue;
+                        }
+                        Record<?> record = category.get(readerRandoms.nextInt(category.size()));
+                        assertNotNull(record, "Readers must never see an unpublished slot!");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(1, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Category category = registry.lookup(CATEGORY_NAME);
+        assertEquals(WRITERS * RECORDS_PER_WRITER, category.size(), "No record may get lost or duplicated!");
+        for (List<CustomMem> batch : batches) {
+            for (CustomMem record : batch) {
+                assertTrue(category.contains(record));
+            }
+        }
+        int counted = 0;
+        for (Record<?> record : category) {
+            assertNotNull(record);
+            counted++;
+        }
+        assertEquals(category.size(), counted);
+        assertFalse(category.add(batches.get(0).get(0)));
+    }
+
+    @Test
+    void perThreadRegistriesShareTheBase() throws Exception {
+        final RandomUnit randomUnit = new Randoms(1000L);
+        final CustomMem austria = new CustomMem("base-countries", randomUnit).add("name", "Austria");
+        // a private base instead of the process-wide one keeps the other tests unaffected
+        final Registry base = new Registry(Strategy.GLOBAL);
+        assertSame(base, base.loadAsBase(registry -> registry.put("base-countries", austria)));
+        assertThrows(ShamPugException.class, () -> base.loadAsBase(registry -> registry.put("base-countries", austria)));
+        assertThrows(ShamPugException.class, () -> base.put("base-countries", new CustomMem("base-countries", randomUnit)));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            final List<Future<Registry>> results = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                final int writer = w;
+                results.add(executor.submit(() -> {
+                    assertSame(Registry.get(Strategy.PER_TREAD), Registry.get(Strategy.PER_TREAD), "Same thread, same registry!");
+                    Registry registry = new Registry(Strategy.PER_TREAD, base);
+                    assertSame(austria, registry.lookup("base-countries").get(0));
+                    registry.put("base-countries", austria); // already part of the base
+                    for (int i = 0; i < RECORDS_PER_WRITER; i++) {
+                        registry.put("base-countries", new CustomMem("base-countries", randomUnit).add("writer", writer));
+                    }
+                    Category category = registry.lookup("base-countries");
+                    assertEquals(1 + RECORDS_PER_WRITER, category.size());
+                    assertSame(austria, category.get(0));
+                    for (int i = 1; i < category.size(); i++) {
+                        assertEquals(writer, (Integer) category.get(i).get("writer"), "Records of other threads must not be visible!");
+                    }
+                    return registry;
+                }));
+            }
+            for (Future<Registry> result : results) {
+                assertNotSame(base, result.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, base.lookup("base-countries").size(), "The base must not see any thread records!");
+    }
+
+    @Test
+    void perThreadRegistriesWorkWithoutLoadingTheBase() throws Exception {
+        final Registry base = new Registry(Strategy.GLOBAL);
+        final Registry registry = new Registry(Strategy.PER_TREAD, base);
+        assertNull(registry.lookup("countries"));
+        registry.put("countries", new CustomMem("countries").add("name", "Cuba"));
+        assertEquals(1, registry.lookup("countries").size());
+        assertThrows(ShamPugException.class, () -> base.loadAsBase(r -> r.put("countries", new CustomMem("countries"))),
+            "The base has been frozen empty by the first per-thread put!");
+        assertNull(base.lookup("countries"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Registry first = executor.submit(() -> {
+                Registry.get(Strategy.PER_TREAD).put("clear-countries", new CustomMem("clear-countries").add("name", "Cuba"));
+                return Registry.get(Strategy.PER_TREAD);
+            }).get(1, TimeUnit.MINUTES);
+            Registry second = executor.submit(() -> {
+                Registry.clearThread();
+                return Registry.get(Strategy.PER_TREAD);
+            }).get(1, TimeUnit.MINUTES);
+            assertNotSame(first, second);
+            assertEquals(1, first.lookup("clear-countries").size());
+            assertNull(second.lookup("clear-countries"), "A cleared thread must start over!");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void perThreadRegistriesShareTheIndexesOfUnchangedBaseCategories() {
+        final Registry base = new Registry(Strategy.GLOBAL);
+        base.loadAsBase(registry -> {
+            registry.put("countries", new CustomMem("countries").add("name", "Austria").add("population", 9_006_398));
+            registry.putWeights("countries", "population");
+            registry.putIndex("countries", "name");
+            registry.putRangeIndex("countries", "population");
+        });
+        final Registry first = new Registry(Strategy.PER_TREAD, base);
+        final Registry second = new Registry(Strategy.PER_TREAD, base);
+        assertSame(base.getWeights("countries"), first.getWeights("countries"));
+        assertSame(base.getIndex("countries", "name"), second.getIndex("countries", "name"));
+        assertSame(base.getRangeIndex("countries", "population"), first.getRangeIndex("countries", "population"));
+
+        second.put("countries", new CustomMem("countries").add("name", "Cuba").add("population", 11_326_616));
+        assertNotSame(base.getWeights("countries"), second.getWeights("countries"));
+        assertNotSame(base.getIndex("countries", "name"), second.getIndex("countries", "name"));
+        assertNotSame(base.getRangeIndex("countries", "population"), second.getRangeIndex("countries", "population"));
+        assertSame(second.getIndex("countries", "name"), second.getIndex("countries", "name"));
+        assertSame(base.getIndex("countries", "name"), first.getIndex("countries", "name"));
+    }
+
+    @Test
+    void loadersRunOnceOnFirstAccess() throws Exception {
+        Registry registry = new Registry(Strategy.NEW_INSTANCE);
+        AtomicInteger loads = new AtomicInteger();
+        registry.putLoader("lazy", () -> {
+            loads.incrementAndGet();
+            Category category = new Category("lazy");
+            for (int i = 0; i < 1000; i++) {
+                category.add(new CustomMem("lazy").add("id", i));
+            }
+            return category;
+        });
+        registry.putLoader("unused", () -> {
+            throw new AssertionError("Must never be loaded!");
+        });
+        assertEquals(0, loads.get());
+        assertThrows(ShamPugException.class, () -> registry.putLoader("lazy", () -> new Category("lazy")));
+        assertThrows(ShamPugException.class, () -> registry.put(new Category("lazy")));
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Category>> lookups = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            lookups.add(pool.submit(() -> {
+                start.await();
+                return registry.lookup("lazy");
+            }));
+        }
+        start.countDown();
+        Category first = lookups.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<Category> lookup : lookups) {
+            assertSame(first, lookup.get(10, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, loads.get());
+        assertEquals(1000, first.size());
+        registry.put("lazy", new CustomMem("lazy").add("id", 1000));
+        assertEquals(1001, registry.lookup("lazy").size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void loadersRacingWithPutsAreNeverLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                final Registry registry = new Registry(Strategy.NEW_INSTANCE);
+                final CountDownLatch start = new CountDownLatch(1);
+                final CustomMem loaded = new CustomMem("raced").add("from", "loader");
+                Future<Boolean> loader = pool.submit(() -> {
+                    start.await();
+                    try {
+                        registry.putLoader("raced", () -> {
+                            Category category = new Category("raced");
+                            category.add(loaded);
+                            return category;
+                        });
+                        return true;
+                    } catch (ShamPugException e) {
+                        return false;
+                    }
+                });
+                Future<?> put = pool.submit(() -> {
+                    start.await();
+                    registry.put("raced", new CustomMem("raced").add("from", "put"));
+                    return null;
+                });
+                start.countDown();
+                put.get(10, TimeUnit.SECONDS);
+                boolean registered = loader.get(10, TimeUnit.SECONDS);
+                Category category = registry.lookup("raced");
+                assertEquals(registered ? 2 : 1, category.size());
+                assertEquals(registered, category.contains(loaded), "A registered loader must run!");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failingLoadersAreRetried() {
+        Registry registry = new Registry(Strategy.NEW_INSTANCE);
+        AtomicInteger attempts = new AtomicInteger();
+        registry.putLoader("flaky", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ShamPugException("Not yet!");
+            }
+            return new Category("flaky");
+        });
+        registry.putLoader("misnamed", () -> new Category("other"));
+        assertThrows(ShamPugException.class, () -> registry.lookup("flaky"));
+        assertNotNull(registry.lookup("flaky"));
+        assertEquals(2, attempts.get());
+        assertThrows(ShamPugException.class, () -> registry.lookup("misnamed"));
+    }
+
+    @Test
+    void loadersMayUseOtherCategories() {
+        Registry registry = new Registry(Strategy.NEW_INSTANCE);
+        registry.put("names", new CustomMem("names").add("name", "Baby"));
+        registry.putLoader("countries", () -> {
+            Category category = new Category("countries");
+            category.add(new CustomMem("countries").add("name", "Austria"));
+            return category;
+        });
+        registry.putLoader("pugs", () -> {
+            Category category = new Category("pugs");
+            category.add(new CustomMem("pugs").add("name", registry.lookup("names").get(0).get("name"))
+                .add("country", registry.lookup("countries").get(0).get("name")));
+            return category;
+        });
+        registry.putLoader("selfish", () -> registry.lookup("selfish"));
+
+        Record<?> pug = registry.lookup("pugs").get(0);
+        assertEquals("Baby", pug.get("name"));
+        assertEquals("Austria", pug.get("country"));
+        assertEquals(1, registry.lookup("countries").size());
+        assertThrows(ShamPugException.class, () -> registry.lookup("selfish"));
+    }
+}
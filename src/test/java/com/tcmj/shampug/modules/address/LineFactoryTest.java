@@ -0,0 +1,72 @@
+package com.tcmj.shampug.modules.address;
+
+import com.tcmj.shampug.pub.Randoms;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineFactoryTest {
+
+    @Test
+    void defaultNameLine() {
+        Address address = new Address(new Randoms(1000L)).title("Dr.").firstName("Eddard").middleName("Ned").lastName("Stark");
+        assertEquals("Dr. Eddard Ned Stark", LineFactory.DEFAULT_NAME.getLine(address, address.getRandomUnit()));
+    }
+
+    @Test
+    void unsetTokensAreRenderedByName() {
+        Address address = new Address(new Randoms(1000L)).firstName("Robb").lastName("Stark");
+        assertEquals("title Robb middlename Stark", LineFactory.DEFAULT_NAME.getLine(address, address.getRandomUnit()));
+    }
+
+    @Test
+    void randomNumbersAndStaticText() {
+        LineFactory streetLine = LineFactory.of("[street] #### Apt ##");
+        Address address = new Address(new Randoms(1000L)).street("Kingsroad");
+        for (int i = 0; i < 1000; i++) {
+            String line = streetLine.getLine(address, address.getRandomUnit());
+            assertTrue(line.matches("Kingsroad [1-9][0-9]{3} Apt [1-9][0-9]"), "Unexpected line: " + line);
+        }
+    }
+
+    @Test
+    void renderIntoWriter() throws Exception {
+        LineFactory streetLine = LineFactory.of("[street] ### [zipcode]");
+        Address expected = new Address(new Randoms(1000L)).street("Kingsroad").zipcode("12345");
+        Address streamed = new Address(new Randoms(1000L)).street("Kingsroad").zipcode("12345");
+        StringWriter writer = new StringWriter();
+        for (int i = 0; i < 10; i++) {
+            streetLine.renderLine(streamed, streamed.getRandomUnit(), writer).append('\n');
+        }
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            lines.append(streetLine.getLine(expected, expected.getRandomUnit())).append('\n');
+        }
+        assertEquals(lines.toString(), writer.toString());
+    }
+
+    @Test
+    void addressLinesIntoAppendable() throws Exception {
+        Address address = new Address(new Randoms(1000L)).title("Dr.").firstName("Eddard").middleName("Ned").lastName("Stark")
+            .withDefaultNameFactory()
+            .withStreetFactory(LineFactory.of("[street] ###"))
+            .street("Kingsroad");
+        assertEquals("Dr. Eddard Ned Stark", address.appendNameLine(new StringWriter()).toString());
+        String street = address.getStreetLine();
+        assertEquals(street, address.appendStreetLine(new StringBuilder()).toString(), "A built line must be reused!");
+
+        Address fresh = new Address(new Randoms(1000L)).withStreetFactory(LineFactory.of("[street] ####")).street("Kingsroad");
+        String appended = fresh.appendStreetLine(new StringBuilder()).toString();
+        assertEquals(appended, fresh.appendStreetLine(new StringWriter()).toString(), "Appending twice must give the same line!");
+        assertEquals(appended, fresh.getStreetLine());
+    }
+
+    @Test
+    void tooManyDigits() {
+        assertThrows(IllegalArgumentException.class, () -> LineFactory.of("[street] ###################"));
+    }
+}
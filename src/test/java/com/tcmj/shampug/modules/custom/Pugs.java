@@ -0,0 +1,76 @@
+package com.tcmj.shampug.modules.custom;
+
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.modules.custom.mem.ColumnarCategory;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The pugs written, loaded and mapped by the tests of the custom modules. Every value is derived from the id,
+ * so a test can verify any record it gets back without keeping the originals around.
+ */
+public final class Pugs {
+
+    public static final String CATEGORY = "pugs";
+
+    private static final String[] NAMES = {"Baby", "Emmy", "Biene", "Surie", "Betzy"};
+
+    private Pugs() {
+    }
+
+    public static String name(int id) {
+        return NAMES[id % NAMES.length];
+    }
+
+    public static double weight(int id) {
+        return 3.0 + (id % 70) / 10.0;
+    }
+
+    public static boolean leader(int id) {
+        return id % 3 == 0;
+    }
+
+    public static char color(int id) {
+        return id % 2 == 0 ? 'B' : 'S';
+    }
+
+    public static long chip(int id) {
+        return 276_000_000_000L + id;
+    }
+
+    public static CustomMem pug(String category, RandomUnit randomUnit, int id) {
+        return new CustomMem(category, randomUnit).add("id", id).add("name", name(id)).add("weight", weight(id))
+            .add("leader", leader(id)).add("color", color(id)).add("chip", chip(id));
+    }
+
+    public static ColumnarCategory.Builder row(ColumnarCategory.Builder builder, int id) {
+        return builder.row().set("id", id).set("name", name(id)).set("weight", weight(id))
+            .set("leader", leader(id)).set("color", color(id)).set("chip", chip(id));
+    }
+
+    /**
+     * A seeded ShamPug holding the given amount of pugs in the category {@value #CATEGORY}.
+     */
+    public static ShamPug shamPug(int amount) {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).usingSeed(1000L).create();
+        for (int i = 0; i < amount; i++) {
+            shamPug.put(pug(CATEGORY, shamPug.getRandomUnit(), i));
+        }
+        return shamPug;
+    }
+
+    /**
+     * Asserts the values every format keeps. The color is left out because text formats return it as string.
+     */
+    public static void assertPug(Record<?> pug) {
+        int id = pug.getInt("id");
+        assertEquals(name(id), pug.get("name"));
+        assertEquals(weight(id), pug.getDouble("weight"));
+        assertEquals(leader(id), pug.getBoolean("leader"));
+        assertEquals(chip(id), pug.getLong("chip"));
+    }
+}
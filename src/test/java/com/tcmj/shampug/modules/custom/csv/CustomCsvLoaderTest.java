@@ -0,0 +1,141 @@
+package com.tcmj.shampug.modules.custom.csv;
+
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.Pugs;
+import com.tcmj.shampug.modules.custom.mem.ColumnarCategory;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Csv files are scanned over their mapped bytes into records or columnar categories.
+ */
+class CustomCsvLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String name, String content) throws Exception {
+        return Files.write(this.tempDir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path pugs(int amount) throws Exception {
+        StringBuilder csv = new StringBuilder("id,name,weight,leader,chip,note\n");
+        for (int i = 0; i < amount; i++) {
+            csv.append(i).append(',').append(Pugs.name(i)).append(',').append(Pugs.weight(i)).append(',')
+                .append(Pugs.leader(i)).append(',').append(Pugs.chip(i)).append(',')
+                .append(i % 10 == 0 ? "\"quiet, small\"" : "").append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        return write("pugs.csv", csv.toString());
+    }
+
+    private static ShamPug shamPug() {
+        return ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+    }
+
+    @Test
+    void columnTypesAreInferred() throws Exception {
+        ColumnarCategory pugs = new CustomCsvLoader(shamPug()).loadColumnar("pugs", pugs(10_000));
+        assertEquals(10_000, pugs.size());
+        for (int id = 0; id < 10_000; id += 7) {
+            Record<?> pug = pugs.get(id);
+            assertEquals(id, pug.getInt("id"));
+            Pugs.assertPug(pug);
+            assertEquals(Pugs.chip(id), (Long) pug.get("chip"));
+            assertEquals(id % 10 == 0 ? "quiet, small" : null, pug.get("note"));
+        }
+        assertEquals(5, pugs.distinctStrings("name"));
+    }
+
+    @Test
+    void parallelChunksKeepTheLineOrder() throws Exception {
+        Path file = pugs(20_000);
+        Category sequential = new CustomCsvLoader(shamPug()).loadRecords("pugs", file);
+        Category parallel = new CustomCsvLoader(shamPug()).withChunkSize(4096).parallel(true).loadRecords("pugs", file);
+        assertEquals(20_000, sequential.size());
+        assertEquals(20_000, parallel.size());
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(i, parallel.get(i).getInt("id"));
+            assertEquals(sequential.get(i).getTokens(), parallel.get(i).getTokens());
+            assertEquals((Object) sequential.get(i).get("weight"), parallel.get(i).get("weight"));
+            assertEquals((Object) sequential.get(i).get("note"), parallel.get(i).get("note"));
+        }
+    }
+
+    @Test
+    void explicitTypesAndDelimiters() throws Exception {
+        Path file = write("countries.csv", "name;population;code\nAustria;9006398;040\n\nCuba;11326616;192\nNowhere;;\n");
+        ShamPug shamPug = shamPug();
+        ColumnarCategory countries = new CustomCsvLoader(shamPug).withDelimiter(';')
+            .withType("population", CsvType.LONG).withType("code", CsvType.STRING).loadColumnar("countries", file);
+        assertEquals(3, countries.size());
+        assertEquals(9_006_398L, (Long) countries.get(0).get("population"));
+        assertEquals("040", countries.get(0).get("code"));
+        assertNull(countries.get(2).get("population"));
+
+        Path invalid = write("invalid.csv", "name,population\nAustria,many\n");
+        CustomCsvLoader loader = new CustomCsvLoader(shamPug).withType("population", CsvType.INT);
+        assertThrows(ShamPugException.class, () -> loader.loadColumnar("countries", invalid));
+        assertThrows(ShamPugException.class, () -> loader.loadColumnar("countries", write("extra.csv", "name\nAustria,Vienna\n")));
+        assertThrows(ShamPugException.class, () -> loader.loadColumnar("countries", write("quote.csv", "name\n\"Austria\n")));
+        assertThrows(ShamPugException.class, () -> loader.loadColumnar("countries", write("empty.csv", "")));
+    }
+
+    @Test
+    void quotedValuesFollowTheColumnType() throws Exception {
+        Path file = write("quoted.csv", "name,population,code,member\n\"Austria\",\"9006398\",\"040\",\"true\"\nCuba,11326616,\"\",\n");
+        ColumnarCategory countries = new CustomCsvLoader(shamPug()).withType("population", CsvType.LONG)
+            .withType("member", CsvType.BOOLEAN).loadColumnar("countries", file);
+        assertEquals(9_006_398L, (Long) countries.get(0).get("population"));
+        assertEquals(11_326_616L, (Long) countries.get(1).get("population"));
+        assertEquals("040", countries.get(0).get("code"));  // quoted values are inferred as strings
+        assertEquals("", countries.get(1).get("code"));
+        assertEquals(Boolean.TRUE, countries.get(0).get("member"));
+        assertNull(countries.get(1).get("member"));
+
+        CustomCsvLoader loader = new CustomCsvLoader(shamPug()).withType("population", CsvType.LONG);
+        assertThrows(ShamPugException.class, () -> loader.loadRecords("countries", write("many.csv", "name,population\nAustria,\"many\"\n")));
+    }
+
+    @Test
+    void delimiterAndQuoteMustBeScannable() {
+        assertThrows(IllegalArgumentException.class, () -> new CustomCsvLoader(shamPug()).withDelimiter('\n'));
+        assertThrows(IllegalArgumentException.class, () -> new CustomCsvLoader(shamPug()).withDelimiter('§'));
+        assertThrows(IllegalArgumentException.class, () -> new CustomCsvLoader(shamPug()).withQuote('\r'));
+        CustomCsvLoader sameCharacter = new CustomCsvLoader(shamPug()).withDelimiter('"');
+        assertThrows(IllegalArgumentException.class, () -> sameCharacter.loadRecords("countries", write("same.csv", "name\nAustria\n")));
+    }
+
+    @Test
+    void valuesNotMatchingAnInferredTypeAreKept() throws Exception {
+        StringBuilder csv = new StringBuilder("value\n");
+        for (int i = 0; i < 300_000; i++) {
+            csv.append(i).append('\n');  // more than the sample size
+        }
+        csv.append("unknown\n").append(9_000_000_000L).append('\n');
+        ColumnarCategory values = new CustomCsvLoader(shamPug()).loadColumnar("values", write("values.csv", csv.toString()));
+        assertEquals(42, values.get(42).getInt("value"));
+        assertEquals("unknown", values.get(300_000).get("value"));
+        assertEquals(9_000_000_000L, values.get(300_001).getLong("value"));
+    }
+
+    @Test
+    void categoriesCanBeLoadedLazily() throws Exception {
+        ShamPug shamPug = shamPug();
+        shamPug.putLoader("pugs", new CustomCsvLoader(shamPug).categoryFromFile("pugs", pugs(100)));
+        Record<?> pug = shamPug.get("pugs");
+        assertEquals(100, shamPug.getRegistry().lookup("pugs").size());
+        assertEquals("pugs", pug.key());
+    }
+}
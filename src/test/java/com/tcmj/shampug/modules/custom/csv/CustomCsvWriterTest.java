@@ -0,0 +1,132 @@
+package com.tcmj.shampug.modules.custom.csv;
+
+import com.tcmj.shampug.intern.Category;
+import com.tcmj.shampug.modules.custom.Pugs;
+import com.tcmj.shampug.modules.address.Address;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Randoms;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Records written by the {@link CustomCsvWriter} can be read again by the {@link CustomCsvLoader}.
+ */
+class CustomCsvWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writtenRecordsCanBeLoadedAgain() throws Exception {
+        Path file = this.tempDir.resolve("pugs.csv");
+        try (CustomCsvWriter writer = new CustomCsvWriter(file)) {
+            assertEquals(100_000, writer.write(Pugs.shamPug(100).<CustomMem>stream(Pugs.CATEGORY, 100_000)));
+            writer.write(new CustomMem("pugs").add("id", -1).add("chip", Long.MIN_VALUE)
+                .add("name", "Emmy \"the pug\", Dogé 🐶"));
+            assertThrows(IllegalStateException.class, () -> writer.withDelimiter(';'));
+        }
+
+        Category loaded = new CustomCsvLoader(Pugs.shamPug(0)).withType("name", CsvType.STRING).loadRecords("pugs", file);
+        assertEquals(100_001, loaded.size());
+        for (int i = 0; i < 100_000; i += 11) {
+            Pugs.assertPug(loaded.get(i));
+        }
+        Record<?> last = loaded.get(100_000);
+        assertEquals(Long.MIN_VALUE, last.getLong("chip"));
+        assertEquals("Emmy \"the pug\", Dogé 🐶", last.get("name"));
+        assertNull(last.get("weight"));
+    }
+
+    @Test
+    void valuesAreQuotedIfNecessary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CustomCsvWriter writer = new CustomCsvWriter(Channels.newChannel(out)).withDelimiter(';').withColumns("name", "note", "size")) {
+            writer.write(new CustomMem("pugs").add("name", "Emmy; \"the pug\"").add("size", -42).add("other", 1));
+            writer.write(new CustomMem("pugs").add("name", "Dogé 🐶").add("note", "a,b").add("size", 1.5));
+        }
+        assertEquals("name;note;size\n\"Emmy; \"\"the pug\"\"\";;-42\nDogé 🐶;a,b;1.5\n",
+            new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void stringsLookingTypedKeepTheirType() throws Exception {
+        Path file = this.tempDir.resolve("codes.csv");
+        try (CustomCsvWriter writer = new CustomCsvWriter(file).withColumns("code", "flag", "note", "size")) {
+            writer.write(new CustomMem("codes").add("code", "040").add("flag", "true").add("note", "").add("size", 40));
+            writer.write(new CustomMem("codes").add("code", "-1.5e3").add("flag", "False").add("note", "e").add("size", 41));
+        }
+        assertEquals("code,flag,note,size\n\"040\",\"true\",\"\",40\n\"-1.5e3\",\"False\",e,41\n",
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+        Category codes = new CustomCsvLoader(Pugs.shamPug(0)).loadRecords("codes", file);
+        assertEquals("040", codes.get(0).get("code"));
+        assertEquals("true", codes.get(0).get("flag"));
+        assertEquals("", codes.get(0).get("note"));
+        assertEquals(Integer.valueOf(40), codes.get(0).get("size"));
+        assertEquals("-1.5e3", codes.get(1).get("code"));
+        assertEquals("False", codes.get(1).get("flag"));
+    }
+
+    @Test
+    void addressesUseTheirTokensAsColumns() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CustomCsvWriter writer = new CustomCsvWriter(Channels.newChannel(out)).withoutHeader()) {
+            writer.write(new Address(new Randoms(1000L)).firstName("Eddard").lastName("Stark").city("Winterfell, North"));
+        }
+        String line = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        List<String> expected = new ArrayList<>();
+        for (String token : new Address(new Randoms(1000L)).getTokens()) {
+            expected.add(Address.FIRST_NAME.equals(token) ? "Eddard" : Address.LAST_NAME.equals(token) ? "Stark"
+                : Address.CITY.equals(token) ? "\"Winterfell, North\"" : "");
+        }
+        assertEquals(String.join(",", expected) + "\n", line);
+    }
+
+    @Test
+    void shardsKeepTheEncounterOrder() throws Exception {
+        Path single = this.tempDir.resolve("single.csv");
+        try (CustomCsvWriter writer = new CustomCsvWriter(single).withoutHeader()) {
+            writer.write(Pugs.shamPug(100).<CustomMem>stream(Pugs.CATEGORY, 50_000));
+        }
+        List<Path> shards = CustomCsvWriter.writeShards(Pugs.shamPug(100).<CustomMem>stream(Pugs.CATEGORY, 50_000), this.tempDir,
+            "pugs", 8, CustomCsvWriter::withoutHeader);
+        assertEquals(8, shards.size());
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (int i = 0; i < shards.size(); i++) {
+            assertEquals(this.tempDir.resolve(String.format("pugs-%03d.csv", i)), shards.get(i));
+            joined.write(Files.readAllBytes(shards.get(i)));
+        }
+        assertEquals(new String(Files.readAllBytes(single), StandardCharsets.UTF_8), new String(joined.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void concatenatedShardsFormOneCsvFile() throws Exception {
+        List<Path> shards = CustomCsvWriter.writeShards(Pugs.shamPug(100).<CustomMem>stream(Pugs.CATEGORY, 10_000),
+            this.tempDir, "headed", 4, writer -> writer.withColumns("id", "name", "weight", "leader", "chip"));
+        assertEquals(4, shards.size());
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (Path shard : shards) {
+            joined.write(Files.readAllBytes(shard));
+        }
+        Path file = Files.write(this.tempDir.resolve("joined.csv"), joined.toByteArray());
+
+        Category loaded = new CustomCsvLoader(Pugs.shamPug(0)).loadRecords(Pugs.CATEGORY, file);
+        assertEquals(10_000, loaded.size());
+        for (int i = 0; i < 10_000; i++) {
+            Pugs.assertPug(loaded.get(i));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tcmj.shampug.modules.custom.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The json loader streams records straight into ShamPug without building a tree.
+ */
+class CustomJsonLoaderTest {
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void loadsAllCategories() throws Exception {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        StringBuilder json = new StringBuilder("{\"pugs\": [");
+        for (int i = 0; i < 10_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"weight\": ").append(i + 0.5)
+                .append(", \"leader\": ").append(i % 2 == 0).append(", \"name\": \"pug").append(i).append("\"}");
+        }
+        json.append("], \"country\": {\"name\": \"Austria\", \"population\": 9006398, \"tags\": [1, 2], \"capital\": null}}");
+
+        assertEquals(10_001, new CustomJsonLoader(shamPug).load(json(json.toString())));
+
+        assertEquals(10_000, shamPug.getRegistry().lookup("pugs").size());
+        for (int i = 0; i < 100; i++) {
+            Record<CustomMem> pug = shamPug.get("pugs");
+            int id = pug.getInt("id");
+            assertEquals(id + 0.5, pug.getDouble("weight"));
+            assertEquals(id % 2 == 0, pug.getBoolean("leader"));
+            assertEquals("pug" + id, pug.get("name"));
+        }
+        Record<CustomMem> austria = shamPug.get("country");
+        assertEquals(9_006_398, austria.getInt("population"));
+        assertEquals("", austria.get("tags"));
+        assertEquals("null", austria.get("capital"));
+        assertTrue(austria.getTokens().contains("capital"));
+    }
+
+    @Test
+    void emptyAndInvalidDocuments() throws Exception {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        CustomJsonLoader loader = new CustomJsonLoader(shamPug);
+        assertEquals(0, loader.load(json("")));
+        assertEquals(0, loader.load(json("{}")));
+        assertEquals(0, loader.load(json("{\"pugs\": []}")));
+        assertThrows(JsonParseException.class, () -> loader.load(json("[1, 2]")));
+        assertThrows(JsonParseException.class, () -> loader.load(json("{\"pugs\": 42}")));
+    }
+
+    @Test
+    void loadsCategoriesLazily(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("fixtures.json");
+        Files.write(file, ("{\"pugs\": [{\"name\": \"Baby\"}, {\"name\": \"Emmy\"}],"
+            + " \"countries\": [{\"name\": \"Austria\", \"cities\": [{\"name\": \"Vienna\"}]}]}").getBytes(StandardCharsets.UTF_8));
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        CustomJsonLoader loader = new CustomJsonLoader(shamPug);
+        shamPug.putLoader("pugs", loader.categoryFromFile("pugs", file))
+            .putLoader("countries", loader.categoryFromFile("countries", file))
+            .putLoader("missing", loader.categoryFromResource("missing", "/missing.json"));
+
+        assertTrue(shamPug.getRegistry().getCategories().isEmpty());
+        assertEquals(2, shamPug.getRegistry().lookup("pugs").size());
+        assertEquals(1, shamPug.getRegistry().getCategories().size());
+        Record<CustomMem> austria = shamPug.get("countries");
+        assertEquals("Austria", austria.get("name"));
+        assertThrows(ShamPugException.class, () -> shamPug.get("missing"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.tcmj.shampug.modules.custom.json;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.modules.custom.Pugs;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Records written by the {@link CustomJsonWriter} can be read again by the {@link CustomJsonLoader}.
+ */
+class CustomJsonWriterTest {
+
+    @Test
+    void streamedRecordsCanBeLoadedAgain() throws Exception {
+        ShamPug shamPug = Pugs.shamPug(100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CustomJsonWriter writer = new CustomJsonWriter(out)) {
+            assertEquals(10_000, writer.write(shamPug.<CustomMem>stream("pugs", 10_000)));
+            writer.write(new CustomMem("countries").add("name", "Austria").add("population", new BigInteger("9006398")));
+            assertEquals(10_001, writer.getWritten());
+        }
+
+        ShamPug loaded = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        assertEquals(10_001, new CustomJsonLoader(loaded).load(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(10_000, loaded.getRegistry().lookup("pugs").size());
+        for (int i = 0; i < 100; i++) {
+            Pugs.assertPug(loaded.get("pugs"));
+        }
+        assertEquals(9_006_398, loaded.<CustomMem>get("countries").getInt("population"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void serializerUsesTheRealCategoryNames() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new SimpleModule().addSerializer(List.class, (JsonSerializer) new CustomRecordListSerializer()));
+        List<Record<CustomMem>> records = Arrays.asList(
+            new CustomMem("pugs").add("weight", 6.5),
+            new CustomMem("pugs").add("leader", true),
+            new CustomMem("countries").add("color", 'S'));
+        assertEquals("{\"pugs\":[{\"weight\":6.5},{\"leader\":true}],\"countries\":[{\"color\":\"S\"}]}",
+            new String(mapper.writeValueAsBytes(records), StandardCharsets.UTF_8));
+        assertEquals("{}", mapper.writeValueAsString(Collections.emptyList()));
+    }
+}
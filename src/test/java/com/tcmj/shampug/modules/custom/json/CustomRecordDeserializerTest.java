@@ -0,0 +1,44 @@
+package com.tcmj.shampug.modules.custom.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A single json data record is read into one {@link CustomMem} record.
+ */
+class CustomRecordDeserializerTest {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ObjectMapper mapper() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        return new ObjectMapper().registerModule(new SimpleModule().addDeserializer((Class) Record.class, new CustomRecordDeserializer(shamPug)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsASingleRecord() throws Exception {
+        Record<CustomMem> baby = mapper().readValue("{\"pugs\": [{\"name\": \"Baby\", \"weight\": 6.5, \"age\": 7}]}", Record.class);
+        assertEquals("pugs", baby.key());
+        assertEquals("Baby", baby.get("name"));
+        assertEquals(6.5, baby.getDouble("weight"));
+        assertEquals(7, baby.getInt("age"));
+    }
+
+    @Test
+    void rejectsMoreThanOneRecord() {
+        ObjectMapper mapper = mapper();
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue(
+            "{\"pugs\": [{\"name\": \"Baby\"}, {\"weight\": 5.0}]}", Record.class));
+        assertThrows(MismatchedInputException.class, () -> mapper.readValue(
+            "{\"pugs\": [{\"name\": \"Baby\"}], \"countries\": [{\"name\": \"Austria\"}]}", Record.class));
+    }
+}
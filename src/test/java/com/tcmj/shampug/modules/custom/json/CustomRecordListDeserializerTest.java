@@ -0,0 +1,46 @@
+package com.tcmj.shampug.modules.custom.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Json data records are read into schema-bound {@link CustomMem} records.
+ */
+class CustomRecordListDeserializerTest {
+
+    private static final String JSON = "{\"pugs\": ["
+        + "{\"name\": \"Baby\", \"weight\": 6.5, \"leader\": false, \"age\": 7, \"chip\": 276000000000},"
+        + "{\"name\": \"Emmy\", \"weight\": 5.0, \"leader\": true, \"age\": 4, \"chip\": 276000000001}"
+        + "]}";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsTypedValues() throws Exception {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new SimpleModule().addDeserializer(List.class, new CustomRecordListDeserializer(shamPug)));
+
+        List<Record<CustomMem>> records = mapper.readValue(JSON, List.class);
+
+        assertEquals(2, records.size());
+        Record<CustomMem> baby = records.get(0);
+        assertEquals("pugs", baby.key());
+        assertEquals("Baby", baby.get("name"));
+        assertEquals(6.5, baby.getDouble("weight"));
+        assertEquals(false, baby.getBoolean("leader"));
+        assertEquals(7, baby.getInt("age"));
+        assertEquals(276_000_000_000L, baby.getLong("chip"));
+        assertEquals(true, records.get(1).getBoolean("leader"));
+        assertSame(((CustomMem) baby).getSchema(), ((CustomMem) records.get(1)).getSchema());
+    }
+}
@@ -0,0 +1,84 @@
+package com.tcmj.shampug.modules.custom.mem;
+
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.Pugs;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Large categories can be stored column by column instead of one {@link CustomMem} per record.
+ */
+class ColumnarCategoryTest {
+
+    private static final String CATEGORY_NAME = "columnar-pugs";
+
+    private static ColumnarCategory pugs(ShamPug shamPug, int amount) {
+        ColumnarCategory.Builder builder = ColumnarCategory.builder(CATEGORY_NAME, shamPug.getRandomUnit());
+        for (int i = 0; i < amount; i++) {
+            Pugs.row(builder, i);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void valuesKeepTheirTypes() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).usingSeed(1000L).create();
+        shamPug.put(pugs(shamPug, 100_000));
+
+        for (int i = 0; i < 1000; i++) {
+            Record<ColumnarRecord> pug = shamPug.get(CATEGORY_NAME);
+            int id = pug.<Integer>get("id");
+            assertEquals(Pugs.weight(id), (Double) pug.get("weight"));
+            assertEquals(Pugs.leader(id), pug.get("leader"));
+            assertEquals(Pugs.color(id), (Character) pug.get("color"));
+            assertEquals(Pugs.chip(id), (Long) pug.get("chip"));
+            assertEquals(CATEGORY_NAME, pug.key());
+            assertNull(pug.get("unknown"));
+            Pugs.assertPug(pug);
+        }
+    }
+
+    @Test
+    void stringsAreDictionaryEncoded() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        ColumnarCategory category = pugs(shamPug, 10_000);
+        assertEquals(10_000, category.size());
+        assertEquals(5, category.distinctStrings("name"));
+        assertEquals(-1, category.distinctStrings("id"));
+        assertTrue(category.contains(category.get(42)));
+        assertEquals(category.get(42), category.get(42));
+    }
+
+    @Test
+    void mixedTypesAndMissingValues() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        ColumnarCategory category = ColumnarCategory.builder("mixed", shamPug.getRandomUnit())
+            .row().set("value", 1)
+            .row().set("value", "two")
+            .row().set("other", 3.0)
+            .add(new CustomMem("mixed", shamPug.getRandomUnit()).add("value", 4L))
+            .build();
+        assertEquals(1, (Integer) category.get(0).get("value"));
+        assertEquals("two", category.get(1).get("value"));
+        assertNull(category.get(2).get("value"));
+        assertEquals(3.0, (Double) category.get(2).get("other"));
+        assertEquals(4L, (Long) category.get(3).get("value"));
+        assertEquals(Collections.singleton("value"), category.get(1).getTokens());
+        assertEquals(Collections.singleton("other"), category.get(2).getTokens());
+        assertEquals(new CustomMem("mixed").add("value", 4L).getTokens(), category.get(3).getTokens(), "Tokens must not depend on the storage!");
+        assertEquals(new LinkedHashSet<>(Arrays.asList("value", "other")), category.getFieldNames());
+        assertThrows(ShamPugException.class, () -> category.get(0).set("value", 5));
+        assertThrows(ShamPugException.class, () -> category.add(new CustomMem("mixed")));
+    }
+}
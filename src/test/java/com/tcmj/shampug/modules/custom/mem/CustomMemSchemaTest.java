@@ -0,0 +1,159 @@
+package com.tcmj.shampug.modules.custom.mem;
+
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.pub.FieldKey;
+import com.tcmj.shampug.pub.RandomUnit;
+import com.tcmj.shampug.pub.Record;
+import com.tcmj.shampug.pub.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Records of one category may share a {@link Schema} and be accessed by pre-resolved {@link FieldKey}s.
+ */
+class CustomMemSchemaTest {
+
+    @Test
+    void schemaBoundRecordsBehaveLikeFreeFormRecords() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).usingSeed(1000L).create();
+        Schema schema = new Schema("schema-pugs");
+        FieldKey<String> name = schema.field("name");
+        FieldKey<Double> weight = schema.field("weight");
+
+        shamPug.put(new CustomMem(schema, shamPug.getRandomUnit()).add(name, "Baby").add(weight, 6.5));
+        shamPug.put(new CustomMem(schema, shamPug.getRandomUnit()).add("name", "Emmy").add("leader", true));
+
+        for (int i = 0; i < 100; i++) {
+            Record<CustomMem> pug = shamPug.get("schema-pugs");
+            assertEquals("schema-pugs", pug.key());
+            assertEquals(pug.<String>get("name"), pug.get(name));
+            assertEquals(pug.<Double>get("weight"), pug.get(weight));
+            assertNull(pug.get("unknown"));
+        }
+        assertEquals(Arrays.asList("name", "weight", "leader"), schema.getFieldNames());
+        assertEquals(2, schema.field("leader").getSlot());
+        assertSame(name, schema.field("name"));
+        assertEquals(-1, schema.slotOf("unknown"));
+    }
+
+    @Test
+    void tokensOnlyContainFieldsHavingAValue() {
+        Schema schema = new Schema("schema-pugs");
+        CustomMem emmy = new CustomMem(schema, null).add("name", "Emmy").add("leader", true);
+        CustomMem baby = new CustomMem(schema, null).add("weight", 6.5);
+        assertEquals(new LinkedHashSet<>(Arrays.asList("name", "leader")), emmy.getTokens());
+        assertEquals(new LinkedHashSet<>(Arrays.asList("weight")), baby.getTokens());
+        assertNull(baby.get(schema.<String>field("name")));
+    }
+
+    @Test
+    void keysOfOtherSchemasFallBackToTheFieldName() {
+        Schema schema = new Schema("schema-pugs");
+        Schema other = new Schema("other");
+        other.field("padding");
+        CustomMem free = new CustomMem("schema-pugs").add("name", "Biene");
+        CustomMem bound = new CustomMem(schema, null).add("name", "Surie");
+        assertEquals("Biene", free.get(other.<String>field("name")));
+        assertEquals("Surie", bound.get(other.<String>field("name")));
+    }
+
+    @Test
+    void columnarCategoriesExposeTheirSchema() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        ColumnarCategory category = ColumnarCategory.builder("columnar", shamPug.getRandomUnit())
+            .row().set("name", "Betzy").set("id", 1)
+            .row().set("id", 2)
+            .build();
+        FieldKey<Integer> id = category.getSchema().field("id");
+        FieldKey<String> name = category.getSchema().field("name");
+        assertEquals(2, (int) category.get(1).get(id));
+        assertEquals("Betzy", category.get(0).get(name));
+        assertNull(category.get(1).get(name));
+    }
+
+    @Test
+    void primitiveValuesAreStoredUnboxed() {
+        Schema schema = new Schema("schema-countries");
+        FieldKey<Integer> population = schema.field("population");
+        FieldKey<Double> density = schema.field("density");
+        CustomMem austria = new CustomMem(schema, null);
+        austria.setInt(population, 9_006_398);
+        austria.setDouble(density, 107.6);
+        austria.setBoolean("member", true);
+        austria.setLong("area", 83_871L);
+        austria.set("name", "Austria");
+
+        assertEquals(9_006_398, austria.getInt(population));
+        assertEquals(9_006_398, austria.getInt("population"));
+        assertEquals(9_006_398L, austria.getLong("population"));
+        assertEquals(107.6, austria.getDouble(density));
+        assertEquals(83_871L, austria.getLong("area"));
+        assertEquals(true, austria.getBoolean("member"));
+        assertEquals(Integer.valueOf(9_006_398), austria.get("population"));
+        assertEquals(Double.valueOf(107.6), austria.get(density));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("population", "density", "member", "area", "name")), austria.getTokens());
+
+        austria.set("population", "unknown");
+        assertEquals("unknown", austria.get(population));
+        assertThrows(ClassCastException.class, () -> austria.getInt(population));
+        assertThrows(NullPointerException.class, () -> austria.getInt("missing"));
+    }
+
+    @Test
+    void freeFormRecordsSupportPrimitiveAccessorsToo() {
+        CustomMem baby = new CustomMem("pugs");
+        baby.setDouble("weight", 6.5);
+        baby.setInt("age", 7);
+        assertEquals(6.5, baby.getDouble("weight"));
+        assertEquals(7.0, baby.getDouble("age"));
+        assertEquals(Integer.valueOf(7), baby.get("age"));
+    }
+
+    @Test
+    void otherRecordImplementationsFallBackToTheFieldName() {
+        Map<String, Comparable<?>> values = new HashMap<>();
+        Record<String> external = new Record<String>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <V extends Comparable> V get(String name) {
+                return (V) values.get(name);
+            }
+
+            @Override
+            public <V extends Comparable<? super V>> void set(String field, V value) {
+                values.put(field, value);
+            }
+
+            @Override
+            public String key() {
+                return "external";
+            }
+
+            @Override
+            public Set<String> getTokens() {
+                return values.keySet();
+            }
+
+            @Override
+            public RandomUnit getRandomUnit() {
+                return null;
+            }
+        };
+        Schema schema = new Schema("external");
+        FieldKey<String> name = schema.field("name");
+        external.set(name, "Baby");
+        assertEquals("Baby", values.get("name"));
+        assertEquals("Baby", external.get(name));
+    }
+}
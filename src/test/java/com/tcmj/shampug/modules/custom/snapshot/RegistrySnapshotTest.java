@@ -0,0 +1,102 @@
+package com.tcmj.shampug.modules.custom.snapshot;
+
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.intern.ShamPugException;
+import com.tcmj.shampug.modules.custom.Pugs;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.FieldKey;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A registry exported to a binary snapshot can be mapped back by another ShamPug instance without parsing.
+ */
+class RegistrySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ShamPug pugs() {
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).usingSeed(1000L).create();
+        for (int i = 0; i < 1000; i++) {
+            CustomMem pug = Pugs.pug(Pugs.CATEGORY, shamPug.getRandomUnit(), i);
+            if (i % 10 == 0) {
+                pug.add("price", new BigDecimal("1299.99"));
+            }
+            shamPug.put(pug);
+        }
+        shamPug.put(new CustomMem("countries", shamPug.getRandomUnit()).add("name", "Österreich").add("population", 9_006_398));
+        return shamPug;
+    }
+
+    @Test
+    void snapshotContainsAllRecords() throws Exception {
+        ShamPug original = pugs();
+        Path file = this.tempDir.resolve("pugs.spug");
+        RegistrySnapshot.write(original.getRegistry(), file);
+
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        List<MappedCategory> categories = RegistrySnapshot.open(file, shamPug.getRandomUnit());
+        categories.forEach(shamPug::put);
+
+        assertEquals(2, categories.size());
+        assertEquals(1000, shamPug.getRegistry().lookup("pugs").size());
+        for (int i = 0; i < 1000; i++) {
+            Record<?> expected = original.getRegistry().lookup("pugs").get(i);
+            Record<?> actual = shamPug.getRegistry().lookup("pugs").get(i);
+            assertEquals(expected.getTokens(), actual.getTokens());
+            for (String field : expected.getTokens()) {
+                assertEquals((Object) expected.get(field), actual.get(field));
+            }
+        }
+        Record<MappedRecord> austria = shamPug.get("countries");
+        assertEquals("Österreich", austria.get("name"));
+        assertEquals(9_006_398, austria.getInt("population"));
+        assertNull(austria.get("unknown"));
+    }
+
+    @Test
+    void primitiveAccessReadsTheMappedFile() throws Exception {
+        Path file = this.tempDir.resolve("pugs.spug");
+        RegistrySnapshot.write(pugs().getRegistry(), file);
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        MappedCategory pugs = RegistrySnapshot.open(file, shamPug.getRandomUnit()).stream()
+            .filter(category -> category.getName().equals("pugs")).findFirst().get();
+
+        FieldKey<Integer> id = pugs.getSchema().field("id");
+        FieldKey<Double> weight = pugs.getSchema().field("weight");
+        Record<?> pug = pugs.get(42);
+        assertEquals(42, pug.getInt(id));
+        assertEquals(Pugs.weight(42), pug.getDouble(weight));
+        Pugs.assertPug(pug);
+        assertEquals(Pugs.color(42), (Character) pug.get("color"));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("id", "name", "weight", "leader", "color", "chip")), pug.getTokens());
+        assertEquals(pug, pugs.get(42));
+        assertThrows(ShamPugException.class, () -> pug.set("id", 1));
+        assertThrows(ShamPugException.class, () -> pugs.add(new CustomMem("pugs")));
+    }
+
+    @Test
+    void invalidFiles() throws Exception {
+        Path file = this.tempDir.resolve("invalid.spug");
+        Files.write(file, "{\"pugs\": []}".getBytes());
+        assertThrows(ShamPugException.class, () -> RegistrySnapshot.open(file, null));
+
+        ShamPug shamPug = ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+        shamPug.put(new CustomMem("dates", shamPug.getRandomUnit()).add("date", java.time.LocalDate.of(2021, 11, 1)));
+        assertThrows(ShamPugException.class, () -> RegistrySnapshot.write(shamPug.getRegistry(), this.tempDir.resolve("dates.spug")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.tcmj.shampug.modules.custom.yaml;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.tcmj.shampug.ShamPug;
+import com.tcmj.shampug.intern.Registry.Strategy;
+import com.tcmj.shampug.modules.custom.mem.CustomMem;
+import com.tcmj.shampug.pub.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The yaml loader streams the records of all documents into ShamPug.
+ */
+class CustomYamlLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static InputStream yaml(String yaml) {
+        return new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ShamPug shamPug() {
+        return ShamPug.setup().withRegistryStrategy(Strategy.NEW_INSTANCE).create();
+    }
+
+    private static String pugs(int amount) {
+        StringBuilder yaml = new StringBuilder("pugs:\n");
+        for (int i = 0; i < amount; i++) {
+            yaml.append("  - id: ").append(i).append("\n    weight: ").append(i + 0.5).append("\n    leader: ")
+                .append(i % 2 == 0).append("\n    name: pug").append(i).append('\n');
+        }
+        return yaml.toString();
+    }
+
+    @Test
+    void loadsAllDocuments() throws Exception {
+        ShamPug shamPug = shamPug();
+        String yaml = pugs(5_000) + "---\n" + "country: {name: Austria, population: 9006398, tags: [1, 2]}\n"
+            + "---\n---\n" + pugs(5_000);
+
+        assertEquals(10_001, new CustomYamlLoader(shamPug).load(yaml(yaml)));
+
+        assertEquals(10_000, shamPug.getRegistry().lookup("pugs").size());
+        for (int i = 0; i < 100; i++) {
+            Record<CustomMem> pug = shamPug.get("pugs");
+            int id = pug.getInt("id");
+            assertEquals(id + 0.5, pug.getDouble("weight"));
+            assertEquals(id % 2 == 0, pug.getBoolean("leader"));
+            assertEquals("pug" + id, pug.get("name"));
+        }
+        Record<CustomMem> austria = shamPug.get("country");
+        assertEquals(9_006_398, austria.getInt("population"));
+        assertEquals("", austria.get("tags"));
+    }
+
+    @Test
+    void emptyAndInvalidDocuments() throws Exception {
+        assertEquals(0, new CustomYamlLoader(shamPug()).load(yaml("")));
+        assertEquals(0, new CustomYamlLoader(shamPug()).load(yaml("---\n---\n")));
+        assertThrows(JsonParseException.class, () -> new CustomYamlLoader(shamPug()).load(yaml("- just\n- a list\n")));
+        assertThrows(JsonParseException.class, () -> new CustomYamlLoader(shamPug()).load(yaml("pugs: Baby\n")));
+    }
+
+    @Test
+    void loadsCategoriesLazily() throws Exception {
+        Path file = Files.write(this.tempDir.resolve("fixtures.yaml"),
+            (pugs(100) + "---\ncountries:\n  - name: Cuba\n").getBytes(StandardCharsets.UTF_8));
+        ShamPug shamPug = shamPug();
+        CustomYamlLoader loader = new CustomYamlLoader(shamPug);
+        shamPug.putLoader("pugs", loader.categoryFromFile("pugs", file));
+        shamPug.putLoader("countries", loader.categoryFromFile("countries", file));
+
+        assertEquals("Cuba", shamPug.<CustomMem>get("countries").get("name"));
+        assertEquals(1, shamPug.getRegistry().lookup("countries").size());
+        assertEquals(100, shamPug.getRegistry().lookup("pugs").size());
+    }
+}
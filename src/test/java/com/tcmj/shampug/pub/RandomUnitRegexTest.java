@@ -115,6 +115,29 @@ public class RandomUnitRegexTest {
         toExamples("user[0-9]{4}\\@mail\\.com");
     }
 
+    @Test
+    void bulkCreationEqualsSingleCalls() throws Exception {
+        final String regex = "01[7856][0-9]{2}-[0-9]{6}";
+        final RandomUnit single = new Randoms(4711L);
+        final String[] expected = new String[AMOUNT_OF_EXAMPLES * 3];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = single.regex(regex, 100, false);
+        }
+
+        final RandomUnit bulk = new Randoms(4711L);
+        final String[] filled = bulk.regexFill(regex, 100, false, new String[AMOUNT_OF_EXAMPLES]);
+        final Object[] streamed = bulk.regexStream(regex, 100, false, AMOUNT_OF_EXAMPLES).toArray();
+        final StringBuilder appended = bulk.regexAppend(regex, 100, false, AMOUNT_OF_EXAMPLES, "\n", new StringBuilder());
+        final String[] lines = appended.toString().split("\n");
+
+        assertEquals(AMOUNT_OF_EXAMPLES, lines.length);
+        for (int i = 0; i < AMOUNT_OF_EXAMPLES; i++) {
+            assertEquals(expected[i], filled[i]);
+            assertEquals(expected[AMOUNT_OF_EXAMPLES + i], streamed[i]);
+            assertEquals(expected[AMOUNT_OF_EXAMPLES * 2 + i], lines[i]);
+        }
+    }
+
     @Test
     void checkForPrimes() { //just a nice regex example - but it doesn't work with ShamPug
         for (int i = 0; i < 120; i++) {
@@ -5,13 +5,22 @@ import com.tcmj.shampug.intern.ShamPugException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RandomUnitTest {
@@ -145,6 +154,74 @@ class RandomUnitTest {
         }
     }
 
+    @Test
+    void splitIsReproducible() {
+        final RandomUnit first = new Randoms(2021L);
+        final RandomUnit second = new Randoms(2021L);
+        for (int i = 0; i < 10; i++) {
+            RandomUnit childA = first.split();
+            RandomUnit childB = second.split();
+            for (int j = 0; j < 100; j++) {
+                assertEquals(childA.nextLong(), childB.nextLong());
+            }
+        }
+        // the parents have been advanced the same way
+        assertEquals(first.nextLong(), second.nextLong());
+    }
+
+    @Test
+    void splitByStreamIndexIsIndependentOfScheduling() throws Exception {
+        final int streams = 16;
+        final int values = 1000;
+        final RandomUnit sequentialRoot = new Randoms(2021L);
+        final long[][] expected = new long[streams][values];
+        for (int s = 0; s < streams; s++) {
+            final RandomUnit child = sequentialRoot.split(s);
+            for (int v = 0; v < values; v++) {
+                expected[s][v] = child.nextLong();
+            }
+        }
+
+        final RandomUnit parallelRoot = new Randoms(2021L);
+        parallelRoot.nextLong(); // deriving by index must not depend on the state of the parent
+        final long[][] actual = new long[streams][values];
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int s = streams - 1; s >= 0; s--) { // reverse order on purpose
+                final int stream = s;
+                futures.add(executor.submit(() -> {
+                    final RandomUnit child = parallelRoot.split(stream);
+                    for (int v = 0; v < values; v++) {
+                        actual[stream][v] = child.nextLong();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int s = 0; s < streams; s++) {
+            assertArrayEquals(expected[s], actual[s], "Stream " + s + " differs!");
+        }
+        assertNotEquals(expected[0][0], expected[1][0], "Streams should be independent!");
+    }
+
+    @Test
+    void splitByStreamIndexKeepsTheParentStateOfUnseededUnits() {
+        final RandomUnit wrapped = new Randoms(new java.util.Random(2021L));
+        final long[] children = {wrapped.split(0).nextLong(), wrapped.split(1).nextLong()};
+        assertEquals(new java.util.Random(2021L).nextLong(), wrapped.nextLong(), "The parent must not have been advanced!");
+        assertEquals(children[0], wrapped.split(0).nextLong());
+        assertEquals(children[1], wrapped.split(1).nextLong());
+
+        final RandomUnit unseeded = new Randoms();
+        assertEquals(unseeded.split(7).nextLong(), unseeded.split(7).nextLong());
+        assertNotEquals(unseeded.split(7).nextLong(), new Randoms().split(7).nextLong(), "Unseeded units should differ!");
+    }
+
     @Test
     void objectNotFound() {
         Assertions.assertThrows(ShamPugException.class, () -> {
@@ -3,9 +3,15 @@ package com.tcmj.shampug.pub;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RandomsTest {
@@ -142,6 +148,76 @@ class RandomsTest {
         }
     }
 
+    @Test
+    void bulkFillsEqualSingleCalls() {
+        final Randoms single = new Randoms(SEED);
+        final Randoms bulk = new Randoms(SEED);
+        final int[] ints = bulk.nextInts(new int[1000], -50, 77);
+        final long[] longs = bulk.nextLongs(new long[1000], 10000000000L, 10000001000L);
+        final double[] doubles = bulk.nextDoubles(new double[1000]);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(single.nextInt(-50, 77), ints[i]);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(single.nextLong(10000000000L, 10000001000L), longs[i]);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(single.nextDouble(), doubles[i]);
+        }
+    }
+
+    @Test
+    void bulkFillsWithHugeRanges() {
+        for (int value : cut.nextInts(new int[12345], Integer.MIN_VALUE + 1, Integer.MAX_VALUE)) {
+            assertTrue(value > Integer.MIN_VALUE && value < Integer.MAX_VALUE);
+        }
+        for (long value : cut.nextLongs(new long[12345], Long.MIN_VALUE + 1, Long.MAX_VALUE)) {
+            assertTrue(value > Long.MIN_VALUE && value < Long.MAX_VALUE);
+        }
+        assertThrows(IllegalArgumentException.class, () -> cut.nextInts(new int[1], 5, 5));
+    }
+
+    @Test
+    void nextBooleans() {
+        final long[] bits = cut.nextBooleans(new long[1000]);
+        int set = 0;
+        for (int i = 0; i < bits.length * 64; i++) {
+            if ((bits[i >>> 6] & (1L << i)) != 0) {
+                set++;
+            }
+        }
+        // 64000 fair coin flips - we expect about the half of them (+/- 1%)
+        assertTrue(set > 31_360 && set < 32_640, "Unexpected amount of set bits: " + set);
+    }
+
+    @Test
+    void tokens() {
+        final Pattern hex = Pattern.compile("[0-9a-f]{32}");
+        final Pattern base32 = Pattern.compile("[A-Z2-7]{25}");
+        final Pattern base64 = Pattern.compile("[A-Za-z0-9_-]{43}");
+        final Pattern uuid = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}");
+        for (int i = 0; i < 12345; i++) {
+            assertTrue(hex.matcher(cut.nextHex(32)).matches());
+            assertTrue(base32.matcher(cut.nextToken(TokenAlphabet.BASE32, 25)).matches());
+            assertTrue(base64.matcher(cut.nextToken(TokenAlphabet.BASE64, 43)).matches());
+            final String next = cut.nextUUID();
+            assertTrue(uuid.matcher(next).matches(), "UUID not valid: " + next);
+            assertEquals(next, UUID.fromString(next).toString());
+        }
+    }
+
+    @Test
+    void tokenTargetsGetTheSameCharacters() {
+        final String expected = new Randoms(SEED).nextToken(TokenAlphabet.BASE64, 77);
+        final char[] chars = new Randoms(SEED).nextToken(TokenAlphabet.BASE64, new char[80], 3, 77);
+        final StringBuilder builder = new Randoms(SEED).nextToken(TokenAlphabet.BASE64, new StringBuilder("id:"), 77);
+        final ByteBuffer buffer = new Randoms(SEED).nextToken(TokenAlphabet.BASE64, ByteBuffer.allocate(77), 77);
+        assertEquals(expected, new String(chars, 3, 77));
+        assertEquals("id:" + expected, builder.toString());
+        assertEquals(expected, new String(buffer.array(), StandardCharsets.US_ASCII));
+        assertThrows(BufferOverflowException.class, () -> cut.nextToken(TokenAlphabet.HEX, ByteBuffer.allocate(3), 4));
+    }
+
     static class LoopResult {
         boolean lowerFound = false, upperFound = false;
     }